@@ -0,0 +1,180 @@
+package com.petmuc.payment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmuc.payment.adapter.clients.RestClient;
+import com.petmuc.payment.adapter.clients.impl.ResilientPaymentGateway;
+import com.petmuc.payment.api.dtos.ErrorResponse;
+import com.petmuc.payment.api.dtos.PaymentRequest;
+import com.petmuc.payment.api.dtos.PaymentResponse;
+import com.petmuc.payment.api.dtos.ReversalRequest;
+import com.petmuc.payment.api.dtos.ReversalResponse;
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.repositories.CustomerCursorRepository;
+import com.petmuc.payment.domain.repositories.CustomerPaymentSummaryRepository;
+import com.petmuc.payment.domain.repositories.CustomerRepository;
+import com.petmuc.payment.domain.repositories.PaymentRepository;
+import com.petmuc.payment.domain.services.CustomerService;
+import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.domain.services.impl.CustomerServiceImpl;
+import com.petmuc.payment.domain.services.impl.PaymentServiceImpl;
+import com.petmuc.payment.utils.MessageUtil;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wires the real services against in-memory repositories and a stubbed {@link RestClient}, so the benchmarks
+ * measure our own code on the payment path without a database or network.
+ */
+final class BenchmarkFixtures {
+
+    static final Long CUSTOMER_ID = 1L;
+
+    private BenchmarkFixtures() {
+    }
+
+    static MessageUtil messageUtil() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        return new MessageUtil(messageSource);
+    }
+
+    static CustomerService customerService(MessageUtil messageUtil) {
+        return new CustomerServiceImpl(messageUtil, customerRepository(), new CustomerCursorRepository(null), new PaymentProperties(),
+                new NoOpTransactionManager());
+    }
+
+    static PaymentService paymentService(MessageUtil messageUtil, RestClient restClient) {
+        PaymentProperties paymentProperties = new PaymentProperties();
+        CustomerService customerService = customerService(messageUtil);
+        ResilientPaymentGateway paymentGateway = new ResilientPaymentGateway(restClient,
+                CircuitBreaker.ofDefaults("benchmark"), Bulkhead.ofDefaults("benchmark"), messageUtil, new SimpleMeterRegistry(), new ObjectMapper());
+        return new PaymentServiceImpl(messageUtil, paymentGateway, customerService, paymentRepository(),
+                summaryRepository(), new NoOpTransactionManager(), paymentProperties);
+    }
+
+    static Customer customer() {
+        return new Customer(CUSTOMER_ID, "John Doe", "john.doe@example.com");
+    }
+
+    /**
+     * A gateway that answers every payment with the given status, and with an {@link ErrorResponse} body when the
+     * status is not {@code 201 Created}, the way the real gateway reports a decline.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static RestClient restClient(HttpStatus status) {
+        final ResponseEntity response = status == HttpStatus.CREATED
+                ? ResponseEntity.status(status).body(new PaymentResponse(true, "Approved"))
+                : ResponseEntity.status(status).body(new ErrorResponse("Insufficient funds"));
+        return new RestClient() {
+            @Override
+            public ResponseEntity<PaymentResponse> payment(PaymentRequest request) {
+                return response;
+            }
+
+            @Override
+            public ResponseEntity<List<PaymentResponse>> paymentBatch(List<PaymentRequest> requests) {
+                throw new UnsupportedOperationException("paymentBatch");
+            }
+
+            @Override
+            public ResponseEntity<ReversalResponse> paymentReversal(ReversalRequest request) {
+                return response;
+            }
+        };
+    }
+
+    private static CustomerRepository customerRepository() {
+        final Optional<Customer> customer = Optional.of(customer());
+        return inMemoryRepository(CustomerRepository.class, (method, args) -> switch (method) {
+            case "findById" -> CUSTOMER_ID.equals(args[0]) ? customer : Optional.empty();
+            case "existsById" -> CUSTOMER_ID.equals(args[0]);
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Keeps saved payments in a map and assigns ids the way the pooled sequence would; status transitions always
+     * match, as they do when a single request owns the payment.
+     */
+    private static PaymentRepository paymentRepository() {
+        final Map<Long, Payment> payments = new ConcurrentHashMap<>();
+        final AtomicLong ids = new AtomicLong();
+        return inMemoryRepository(PaymentRepository.class, (method, args) -> switch (method) {
+            case "save" -> {
+                Payment payment = (Payment) args[0];
+                payment.setId(ids.incrementAndGet());
+                // Only the latest payment is kept so long benchmark runs do not grow the heap.
+                payments.clear();
+                payments.put(payment.getId(), payment);
+                yield payment;
+            }
+            case "findById" -> Optional.ofNullable(payments.get((Long) args[0]));
+            // Only the not-found path reads views.
+            case "findViewById" -> Optional.empty();
+            case "transitionStatus" -> 1;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private static CustomerPaymentSummaryRepository summaryRepository() {
+        return inMemoryRepository(CustomerPaymentSummaryRepository.class, (method, args) -> switch (method) {
+            case "recordPayments", "recordReversal", "rebuild" -> 1;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @FunctionalInterface
+    private interface RepositoryMethod {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T inMemoryRepository(Class<T> repositoryType, RepositoryMethod handler) {
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> repositoryType.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> handler.invoke(method.getName(), args);
+                }));
+    }
+
+    /**
+     * Lets {@code TransactionTemplate} run its full begin/commit bookkeeping without a resource behind it.
+     */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
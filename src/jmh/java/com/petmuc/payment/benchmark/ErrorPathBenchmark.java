@@ -0,0 +1,103 @@
+package com.petmuc.payment.benchmark;
+
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.services.CustomerService;
+import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.exception.CustomerNotFoundException;
+import com.petmuc.payment.exception.DomainException;
+import com.petmuc.payment.exception.GlobalExceptionHandler;
+import com.petmuc.payment.exception.PaymentNotFoundException;
+import com.petmuc.payment.exception.PaymentProcessingException;
+import com.petmuc.payment.utils.MessageUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The 404 (unknown customer or payment) and 400 (gateway decline) paths from the service call to the {@link ProblemDetail}
+ * built by {@link GlobalExceptionHandler}, with and without {@code payment.errors.stackless}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final Long UNKNOWN_CUSTOMER_ID = 404L;
+    private static final Long UNKNOWN_PAYMENT_ID = 404L;
+
+    @Param({"false", "true"})
+    private boolean stackless;
+
+    private CustomerService customerService;
+    private PaymentService decliningService;
+    private GlobalExceptionHandler exceptionHandler;
+    private MockHttpServletRequest notFoundRequest;
+    private MockHttpServletRequest paymentNotFoundRequest;
+    private MockHttpServletRequest paymentRequest;
+
+    @Setup
+    public void setUp() {
+        DomainException.setStackTraceEnabled(!stackless);
+        MessageUtil messageUtil = BenchmarkFixtures.messageUtil();
+        customerService = BenchmarkFixtures.customerService(messageUtil);
+        decliningService = BenchmarkFixtures.paymentService(messageUtil, BenchmarkFixtures.restClient(HttpStatus.PAYMENT_REQUIRED));
+        exceptionHandler = new GlobalExceptionHandler();
+        notFoundRequest = new MockHttpServletRequest("GET", "/api/v1/customers/" + UNKNOWN_CUSTOMER_ID);
+        paymentNotFoundRequest = new MockHttpServletRequest("GET", "/api/v1/customers/payments/" + UNKNOWN_PAYMENT_ID);
+        paymentRequest = new MockHttpServletRequest("POST", "/api/v1/customers/" + BenchmarkFixtures.CUSTOMER_ID + "/payments");
+    }
+
+    @TearDown
+    public void tearDown() {
+        DomainException.setStackTraceEnabled(true);
+    }
+
+    @Benchmark
+    public ResponseEntity<ProblemDetail> customerNotFound() {
+        try {
+            customerService.getCustomerById(UNKNOWN_CUSTOMER_ID);
+            throw new IllegalStateException("customer must not exist");
+        } catch (CustomerNotFoundException e) {
+            return exceptionHandler.handleCustomerNotFound(e, notFoundRequest);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ProblemDetail> paymentNotFound() {
+        try {
+            decliningService.getPaymentById(UNKNOWN_PAYMENT_ID);
+            throw new IllegalStateException("payment must not exist");
+        } catch (PaymentNotFoundException e) {
+            return exceptionHandler.handlePaymentNotFound(e, paymentNotFoundRequest);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ProblemDetail> paymentDeclined() {
+        try {
+            decliningService.makePayment(BenchmarkFixtures.CUSTOMER_ID, new Payment("CARD", new BigDecimal("125.50"), null, null));
+            throw new IllegalStateException("payment must be declined");
+        } catch (PaymentProcessingException e) {
+            return exceptionHandler.handlePaymentProcessingException(e, paymentRequest);
+        }
+    }
+}
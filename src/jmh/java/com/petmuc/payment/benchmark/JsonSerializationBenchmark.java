@@ -0,0 +1,76 @@
+package com.petmuc.payment.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the entities returned by the customer and payment endpoints, using an
+ * {@link ObjectMapper} configured the way Spring MVC builds it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"50"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Customer customer;
+    private Payment payment;
+    private List<Payment> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        customer = BenchmarkFixtures.customer();
+        page = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            Payment item = new Payment(id, "CARD", new BigDecimal("125.50"), customer, UUID.randomUUID().toString());
+            item.setPaymentDate(LocalDateTime.now());
+            item.setStatus(PaymentStatus.SUCCEEDED);
+            page.add(item);
+        }
+        payment = page.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializeCustomer() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] serializePayment() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(payment);
+    }
+
+    @Benchmark
+    public byte[] serializePaymentPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
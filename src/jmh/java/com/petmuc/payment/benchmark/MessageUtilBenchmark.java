@@ -0,0 +1,63 @@
+package com.petmuc.payment.benchmark;
+
+import com.petmuc.payment.utils.MessageUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message lookup and formatting as done on every error response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageUtilBenchmark {
+
+    private MessageUtil messageUtil;
+    private ResourceBundleMessageSource messageSource;
+
+    @Setup
+    public void setUp() {
+        messageUtil = BenchmarkFixtures.messageUtil();
+        messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+    }
+
+    /**
+     * How {@code MessageUtil} formatted before templates were cached: a message source lookup and a format parse per call.
+     */
+    @Benchmark
+    public String paymentProcessingErrorMessageUncached() {
+        return String.format(messageSource.getMessage("payment.processing_error", null, Locale.getDefault()),
+                "3f1c6d2e-8a4b-4f0e-9d7a-1b2c3d4e5f60", "Insufficient funds");
+    }
+
+    @Benchmark
+    public String paymentProcessingErrorMessage() {
+        return messageUtil.getPaymentProcessingErrorMessage("3f1c6d2e-8a4b-4f0e-9d7a-1b2c3d4e5f60", "Insufficient funds");
+    }
+
+    @Benchmark
+    public String customerNotFoundMessage() {
+        return messageUtil.getCustomerNotFoundMessage(42L);
+    }
+
+    @Benchmark
+    public String defaultErrorMessage() {
+        return messageUtil.getDefaultErrorMessage();
+    }
+}
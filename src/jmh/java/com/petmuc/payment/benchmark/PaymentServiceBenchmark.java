@@ -0,0 +1,61 @@
+package com.petmuc.payment.benchmark;
+
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.exception.PaymentProcessingException;
+import com.petmuc.payment.utils.MessageUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code PaymentServiceImpl.makePayment} end to end, including response validation, for an approved and a
+ * declined payment. The declined path shows what building and throwing the processing exception costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentServiceBenchmark {
+
+    private PaymentService approvingService;
+    private PaymentService decliningService;
+
+    @Setup
+    public void setUp() {
+        MessageUtil messageUtil = BenchmarkFixtures.messageUtil();
+        approvingService = BenchmarkFixtures.paymentService(messageUtil, BenchmarkFixtures.restClient(HttpStatus.CREATED));
+        decliningService = BenchmarkFixtures.paymentService(messageUtil, BenchmarkFixtures.restClient(HttpStatus.PAYMENT_REQUIRED));
+    }
+
+    @Benchmark
+    public Payment makePaymentApproved() {
+        return approvingService.makePayment(BenchmarkFixtures.CUSTOMER_ID, newPayment());
+    }
+
+    @Benchmark
+    public Object makePaymentDeclined() {
+        try {
+            return decliningService.makePayment(BenchmarkFixtures.CUSTOMER_ID, newPayment());
+        } catch (PaymentProcessingException e) {
+            return e;
+        }
+    }
+
+    private static Payment newPayment() {
+        return new Payment("CARD", new BigDecimal("125.50"), null, null);
+    }
+}
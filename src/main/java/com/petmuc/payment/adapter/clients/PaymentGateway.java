@@ -0,0 +1,20 @@
+package com.petmuc.payment.adapter.clients;
+
+import com.petmuc.payment.api.dtos.PaymentRequest;
+import com.petmuc.payment.api.dtos.PaymentResponse;
+import com.petmuc.payment.api.dtos.ReversalRequest;
+import com.petmuc.payment.api.dtos.ReversalResponse;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Entry point to the external payment gateway used by the domain services, in front of {@link RestClient}.
+ */
+public interface PaymentGateway {
+    ResponseEntity<PaymentResponse> payment(PaymentRequest request);
+
+    ResponseEntity<List<PaymentResponse>> paymentBatch(List<PaymentRequest> requests);
+
+    ResponseEntity<ReversalResponse> paymentReversal(ReversalRequest request);
+}
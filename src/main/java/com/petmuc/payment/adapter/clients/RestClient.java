@@ -9,11 +9,19 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "paymentClient", url = "https://api.example.com/payments")
+import java.util.List;
+
+@FeignClient(name = "paymentClient", url = "${payment.gateway.url:https://api.example.com/payments}")
 public interface RestClient {
     @PostMapping
     ResponseEntity<PaymentResponse> payment(@RequestBody PaymentRequest request);
 
+    /**
+     * Submits several payments in one call; the gateway answers with one response per request, in request order.
+     */
+    @PostMapping("/batch")
+    ResponseEntity<List<PaymentResponse>> paymentBatch(@RequestBody List<PaymentRequest> requests);
+
     @PostMapping("/reversal")
     ResponseEntity<ReversalResponse> paymentReversal(@RequestBody ReversalRequest request);
 }
@@ -0,0 +1,208 @@
+package com.petmuc.payment.adapter.clients.impl;
+
+import com.petmuc.payment.adapter.clients.PaymentGateway;
+import com.petmuc.payment.api.dtos.PaymentRequest;
+import com.petmuc.payment.api.dtos.PaymentResponse;
+import com.petmuc.payment.api.dtos.ReversalRequest;
+import com.petmuc.payment.api.dtos.ReversalResponse;
+import com.petmuc.payment.config.ExecutorConfig;
+import com.petmuc.payment.config.GatewayProperties;
+import com.petmuc.payment.exception.ProcessType;
+import com.petmuc.payment.utils.MessageUtil;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent payment calls into single calls to the gateway's batch endpoint. A collector thread takes
+ * the first waiting payment and gathers more until {@code max-batch-size} are waiting or {@code max-delay} has
+ * passed, then hands the batch to a sender; every caller blocks until the response for its own payment is back.
+ * Declines and local rejections are reported per payment exactly as {@link ResilientPaymentGateway} reports them,
+ * so callers cannot tell a batched call from a direct one. Reversals are rare and pass straight through.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "payment.gateway.batching", name = "enabled")
+public class BatchingPaymentGateway implements PaymentGateway, SmartLifecycle {
+
+    private record PendingPayment(PaymentRequest request, CompletableFuture<PaymentResponse> response) {
+    }
+
+    private final ResilientPaymentGateway delegate;
+    private final Executor batchExecutor;
+    private final MessageUtil messageUtil;
+    private final BlockingQueue<PendingPayment> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final DistributionSummary batchSizes;
+    private volatile boolean running;
+    private Thread collector;
+
+    public BatchingPaymentGateway(ResilientPaymentGateway delegate, GatewayProperties gatewayProperties,
+                                  @Qualifier(ExecutorConfig.GATEWAY_BATCH_EXECUTOR) Executor batchExecutor,
+                                  MessageUtil messageUtil, MeterRegistry meterRegistry) {
+        GatewayProperties.Batching batching = gatewayProperties.getBatching();
+        this.delegate = delegate;
+        this.batchExecutor = batchExecutor;
+        this.messageUtil = messageUtil;
+        this.queue = new ArrayBlockingQueue<>(batching.getQueueCapacity());
+        this.maxBatchSize = batching.getMaxBatchSize();
+        this.maxDelayNanos = batching.getMaxDelay().toNanos();
+        this.batchSizes = DistributionSummary.builder("payment.gateway.batch.size")
+                .description("Payments sent per call to the gateway's batch endpoint")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Falls back to a direct call while the collector is not running, so payments made during startup or shutdown
+     * are never left waiting in the queue.
+     */
+    @Override
+    public ResponseEntity<PaymentResponse> payment(PaymentRequest request) {
+        if (!running) {
+            return delegate.payment(request);
+        }
+        PendingPayment pending = new PendingPayment(request, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            ProcessType.PAYMENT.handleUnavailable(request.reference(), messageUtil.getGatewayBusyMessage(), messageUtil);
+        }
+        if (!running && queue.remove(pending)) {
+            return delegate.payment(request);
+        }
+        PaymentResponse response;
+        try {
+            response = pending.response().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                delegate.handleRejection(cause, request.reference(), ProcessType.PAYMENT);
+                throw cause;
+            }
+            throw e;
+        }
+        if (!response.success()) {
+            ProcessType.PAYMENT.handleError(request.reference(), response.message(), messageUtil);
+        }
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @Override
+    public ResponseEntity<List<PaymentResponse>> paymentBatch(List<PaymentRequest> requests) {
+        return delegate.paymentBatch(requests);
+    }
+
+    @Override
+    public ResponseEntity<ReversalResponse> paymentReversal(ReversalRequest request) {
+        return delegate.paymentReversal(request);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        collector = new Thread(this::collect, "gateway-batch-collector");
+        collector.setDaemon(true);
+        collector.start();
+    }
+
+    /**
+     * Payments already queued are still sent before the collector exits.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        collector.interrupt();
+        try {
+            collector.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return ExecutorConfig.GATEWAY_BATCH_PHASE;
+    }
+
+    private void collect() {
+        while (running || !queue.isEmpty()) {
+            List<PendingPayment> batch = new ArrayList<>(maxBatchSize);
+            try {
+                gather(batch);
+            } catch (InterruptedException e) {
+                // stop() interrupts the wait; whatever was gathered is still sent
+            }
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+            }
+        }
+    }
+
+    private void gather(List<PendingPayment> batch) throws InterruptedException {
+        PendingPayment first = running ? queue.take() : queue.poll();
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            PendingPayment next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void dispatch(List<PendingPayment> batch) {
+        batchSizes.record(batch.size());
+        try {
+            batchExecutor.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            send(batch);
+        }
+    }
+
+    /**
+     * A response list that does not line up with the requests leaves every outcome unknown, so each caller gets an
+     * error that keeps its payment PENDING rather than a decline.
+     */
+    private void send(List<PendingPayment> batch) {
+        try {
+            List<PaymentRequest> requests = batch.stream().map(PendingPayment::request).toList();
+            List<PaymentResponse> responses = delegate.paymentBatch(requests).getBody();
+            if (responses == null || responses.size() != batch.size() || responses.contains(null)) {
+                throw new IllegalStateException("Gateway answered a batch of " + batch.size()
+                        + " payments without a response for each of them");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).response().complete(responses.get(i));
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.response().completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.petmuc.payment.adapter.clients.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmuc.payment.adapter.clients.PaymentGateway;
+import com.petmuc.payment.adapter.clients.RestClient;
+import com.petmuc.payment.api.dtos.ErrorResponse;
+import com.petmuc.payment.api.dtos.PaymentRequest;
+import com.petmuc.payment.api.dtos.PaymentResponse;
+import com.petmuc.payment.api.dtos.ReversalRequest;
+import com.petmuc.payment.api.dtos.ReversalResponse;
+import com.petmuc.payment.exception.ProcessType;
+import com.petmuc.payment.utils.MessageUtil;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Guards {@link RestClient} with a circuit breaker and a bulkhead, so a slow or failing gateway cannot
+ * tie up every request thread. Rejected calls never reach the gateway and fail fast through
+ * {@link ProcessType#handleUnavailable}.
+ */
+@Component
+public class ResilientPaymentGateway implements PaymentGateway {
+
+    private final RestClient restClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final MessageUtil messageUtil;
+    private final ObjectMapper objectMapper;
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadFullRejections;
+
+    public ResilientPaymentGateway(RestClient restClient, CircuitBreaker paymentGatewayCircuitBreaker,
+                                   Bulkhead paymentGatewayBulkhead, MessageUtil messageUtil, MeterRegistry meterRegistry,
+                                   ObjectMapper objectMapper) {
+        this.restClient = restClient;
+        this.circuitBreaker = paymentGatewayCircuitBreaker;
+        this.bulkhead = paymentGatewayBulkhead;
+        this.messageUtil = messageUtil;
+        this.objectMapper = objectMapper;
+        this.circuitOpenRejections = rejectionCounter(meterRegistry, "circuit_open");
+        this.bulkheadFullRejections = rejectionCounter(meterRegistry, "bulkhead_full");
+    }
+
+    @Override
+    public ResponseEntity<PaymentResponse> payment(PaymentRequest request) {
+        return call(() -> restClient.payment(request), request.reference(), ProcessType.PAYMENT);
+    }
+
+    /**
+     * Local rejections are rethrown as they are rather than reported for one reference, since they concern every
+     * payment in the batch; callers report them per payment with {@link #handleRejection}.
+     */
+    @Override
+    public ResponseEntity<List<PaymentResponse>> paymentBatch(List<PaymentRequest> requests) {
+        return guard(() -> restClient.paymentBatch(requests));
+    }
+
+    @Override
+    public ResponseEntity<ReversalResponse> paymentReversal(ReversalRequest request) {
+        return call(() -> restClient.paymentReversal(request), request.reference(), ProcessType.REVERSAL);
+    }
+
+    /**
+     * A 4xx answer is the gateway declining the call, reported with the message of its {@link ErrorResponse} body.
+     * Timeouts, conflicts and throttling (408, 409, 429) say nothing about the charge itself, so they stay errors
+     * with an unknown outcome and the payment is left for the sweeper.
+     */
+    private <T> T call(Supplier<T> gatewayCall, String reference, ProcessType processType) {
+        try {
+            return guard(gatewayCall);
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            handleRejection(e, reference, processType);
+            throw e;
+        } catch (FeignException.FeignClientException e) {
+            if (isDecline(e.status())) {
+                processType.handleError(reference, declineMessage(e), messageUtil);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isDecline(int status) {
+        return status != HttpStatus.REQUEST_TIMEOUT.value()
+                && status != HttpStatus.CONFLICT.value()
+                && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private String declineMessage(FeignException e) {
+        try {
+            ErrorResponse errorResponse = objectMapper.readValue(e.contentUTF8(), ErrorResponse.class);
+            if (errorResponse.message() != null) {
+                return errorResponse.message();
+            }
+        } catch (JsonProcessingException ignored) {
+            // not an ErrorResponse body
+        }
+        return messageUtil.getDefaultErrorMessage();
+    }
+
+    private <T> T guard(Supplier<T> gatewayCall) {
+        Supplier<T> guarded = CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, gatewayCall));
+        try {
+            return guarded.get();
+        } catch (CallNotPermittedException e) {
+            circuitOpenRejections.increment();
+            throw e;
+        } catch (BulkheadFullException e) {
+            bulkheadFullRejections.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Reports a call rejected by the circuit breaker or the bulkhead through {@link ProcessType#handleUnavailable};
+     * any other exception is left to the caller.
+     */
+    void handleRejection(RuntimeException e, String reference, ProcessType processType) {
+        if (e instanceof CallNotPermittedException) {
+            processType.handleUnavailable(reference, messageUtil.getGatewayUnavailableMessage(), messageUtil);
+        } else if (e instanceof BulkheadFullException) {
+            processType.handleUnavailable(reference, messageUtil.getGatewayBusyMessage(), messageUtil);
+        }
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("payment.gateway.rejections")
+                .description("Gateway calls rejected locally without reaching the gateway")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
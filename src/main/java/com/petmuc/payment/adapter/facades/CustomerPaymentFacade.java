@@ -1,9 +1,21 @@
 package com.petmuc.payment.adapter.facades;
 
+import com.petmuc.payment.api.dtos.CustomerImportResult;
+import com.petmuc.payment.api.dtos.PaymentBatchItemResult;
+import com.petmuc.payment.api.dtos.PaymentPage;
+import com.petmuc.payment.api.dtos.PaymentStatusView;
+import com.petmuc.payment.api.dtos.PaymentView;
 import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.CustomerImportFormat;
+import com.petmuc.payment.domain.models.CustomerPaymentSummary;
 import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentExport;
+import com.petmuc.payment.domain.models.PaymentReversal;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CustomerPaymentFacade {
     Customer createCustomer(Customer customer);
@@ -16,9 +28,31 @@ public interface CustomerPaymentFacade {
 
     List<Customer> getAllCustomers();
 
+    void streamAllCustomers(Consumer<Customer> consumer);
+
+    CustomerImportResult importCustomers(InputStream upload, CustomerImportFormat format);
+
     Payment makePayment(Long customerId, Payment payment);
 
-    Payment getPaymentById(Long paymentId);
+    Payment makePayment(Long customerId, Payment payment, String idempotencyKey);
+
+    Payment submitPayment(Long customerId, Payment payment, String idempotencyKey);
+
+    PaymentStatusView getPaymentStatus(Long paymentId);
+
+    List<PaymentBatchItemResult> makePayments(Long customerId, List<Payment> payments);
+
+    PaymentView getPaymentById(Long paymentId);
+
+    PaymentReversal requestReversal(Long paymentId);
+
+    PaymentReversal getReversalByPaymentId(Long paymentId);
+
+    List<PaymentView> getPaymentsByCustomerId(Long customerId);
+
+    PaymentPage getPaymentsByCustomerId(Long customerId, String cursor, Integer limit);
+
+    CustomerPaymentSummary getPaymentSummary(Long customerId);
 
-    List<Payment> getPaymentsByCustomerId(Long customerId);
+    PaymentExport exportPayments(LocalDate from, LocalDate to);
 }
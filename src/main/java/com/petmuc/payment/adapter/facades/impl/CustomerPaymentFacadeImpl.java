@@ -1,22 +1,59 @@
 package com.petmuc.payment.adapter.facades.impl;
 
 import com.petmuc.payment.adapter.facades.CustomerPaymentFacade;
+import com.petmuc.payment.api.dtos.CustomerImportResult;
+import com.petmuc.payment.api.dtos.PaymentBatchItemResult;
+import com.petmuc.payment.api.dtos.PaymentPage;
+import com.petmuc.payment.api.dtos.PaymentStatusView;
+import com.petmuc.payment.api.dtos.PaymentView;
+import com.petmuc.payment.config.PaymentProperties;
 import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.CustomerImportFormat;
+import com.petmuc.payment.domain.models.CustomerPaymentSummary;
 import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentExport;
+import com.petmuc.payment.domain.models.PaymentReversal;
+import com.petmuc.payment.domain.services.AsyncPaymentService;
+import com.petmuc.payment.domain.services.CustomerImportService;
 import com.petmuc.payment.domain.services.CustomerService;
+import com.petmuc.payment.domain.services.IdempotencyService;
+import com.petmuc.payment.domain.services.PaymentExportService;
+import com.petmuc.payment.domain.services.PaymentRateLimiter;
 import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.domain.services.ReversalService;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Component
 public class CustomerPaymentFacadeImpl implements CustomerPaymentFacade {
     private final CustomerService customerService;
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final ReversalService reversalService;
+    private final CustomerImportService customerImportService;
+    private final PaymentExportService paymentExportService;
+    private final AsyncPaymentService asyncPaymentService;
+    private final PaymentRateLimiter paymentRateLimiter;
+    private final PaymentProperties paymentProperties;
 
-    public CustomerPaymentFacadeImpl(CustomerService customerService, PaymentService paymentService) {
+    public CustomerPaymentFacadeImpl(CustomerService customerService, PaymentService paymentService,
+                                     IdempotencyService idempotencyService, ReversalService reversalService,
+                                     CustomerImportService customerImportService, PaymentExportService paymentExportService,
+                                     AsyncPaymentService asyncPaymentService, PaymentRateLimiter paymentRateLimiter,
+                                     PaymentProperties paymentProperties) {
         this.customerService = customerService;
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
+        this.reversalService = reversalService;
+        this.customerImportService = customerImportService;
+        this.paymentExportService = paymentExportService;
+        this.asyncPaymentService = asyncPaymentService;
+        this.paymentRateLimiter = paymentRateLimiter;
+        this.paymentProperties = paymentProperties;
     }
 
     @Override
@@ -40,17 +77,93 @@ public class CustomerPaymentFacadeImpl implements CustomerPaymentFacade {
         return customerService.getAllCustomers();
     }
     @Override
+    public void streamAllCustomers(Consumer<Customer> consumer) {
+        customerService.streamAllCustomers(consumer);
+    }
+    @Override
+    public CustomerImportResult importCustomers(InputStream upload, CustomerImportFormat format) {
+        return customerImportService.importCustomers(upload, format);
+    }
+    @Override
     public Payment makePayment(Long customerId, Payment payment) {
+        paymentRateLimiter.acquire(customerId);
         return paymentService.makePayment(customerId, payment);
     }
 
+    /**
+     * The rate limit is only charged once the idempotency key is claimed, so retries that replay a recorded payment
+     * do not use up the customer's allowance. A rejected request releases the key again.
+     */
+    @Override
+    public Payment makePayment(Long customerId, Payment payment, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            paymentRateLimiter.acquire(customerId);
+            return paymentService.makePayment(customerId, payment);
+        }
+        return idempotencyService.execute(customerId, idempotencyKey, payment, () -> {
+            paymentRateLimiter.acquire(customerId);
+            return paymentService.recordPayment(customerId, payment);
+        }, paymentService::settlePayment);
+    }
+
+    @Override
+    public Payment submitPayment(Long customerId, Payment payment, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            paymentRateLimiter.acquire(customerId);
+            return asyncPaymentService.submitPayment(customerId, payment);
+        }
+        return idempotencyService.execute(customerId, idempotencyKey, payment, () -> {
+            paymentRateLimiter.acquire(customerId);
+            return asyncPaymentService.submitPayment(customerId, payment);
+        });
+    }
+
+    @Override
+    public PaymentStatusView getPaymentStatus(Long paymentId) {
+        return asyncPaymentService.getPaymentStatus(paymentId);
+    }
+
+    @Override
+    public List<PaymentBatchItemResult> makePayments(Long customerId, List<Payment> payments) {
+        // Batches the service rejects as empty or too large are not charged.
+        if (payments != null && !payments.isEmpty() && payments.size() <= paymentProperties.getBatch().getMaxItems()) {
+            paymentRateLimiter.acquire(customerId, payments.size());
+        }
+        return paymentService.makePayments(customerId, payments);
+    }
+
     @Override
-    public Payment getPaymentById(Long paymentId) {
+    public PaymentView getPaymentById(Long paymentId) {
         return paymentService.getPaymentById(paymentId);
     }
 
     @Override
-    public List<Payment> getPaymentsByCustomerId(Long customerId) {
+    public PaymentReversal requestReversal(Long paymentId) {
+        return reversalService.requestReversal(paymentId);
+    }
+
+    @Override
+    public PaymentReversal getReversalByPaymentId(Long paymentId) {
+        return reversalService.getReversalByPaymentId(paymentId);
+    }
+
+    @Override
+    public List<PaymentView> getPaymentsByCustomerId(Long customerId) {
         return paymentService.getPaymentsByCustomerId(customerId);
     }
+
+    @Override
+    public PaymentPage getPaymentsByCustomerId(Long customerId, String cursor, Integer limit) {
+        return paymentService.getPaymentsByCustomerId(customerId, cursor, limit);
+    }
+
+    @Override
+    public CustomerPaymentSummary getPaymentSummary(Long customerId) {
+        return paymentService.getPaymentSummary(customerId);
+    }
+
+    @Override
+    public PaymentExport exportPayments(LocalDate from, LocalDate to) {
+        return paymentExportService.exportPayments(from, to);
+    }
 }
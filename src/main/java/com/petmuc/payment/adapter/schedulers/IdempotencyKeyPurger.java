@@ -0,0 +1,32 @@
+package com.petmuc.payment.adapter.schedulers;
+
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.services.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes stored idempotency keys once they are older than the replay window.
+ */
+@Component
+public class IdempotencyKeyPurger {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyPurger.class);
+
+    private final IdempotencyService idempotencyService;
+    private final PaymentProperties.Idempotency idempotency;
+
+    public IdempotencyKeyPurger(IdempotencyService idempotencyService, PaymentProperties paymentProperties) {
+        this.idempotencyService = idempotencyService;
+        this.idempotency = paymentProperties.getIdempotency();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.idempotency.purge-interval:PT1H}", initialDelayString = "${payment.idempotency.purge-interval:PT1H}")
+    public void purge() {
+        int purged = idempotencyService.purgeExpiredKeys(idempotency.getTimeToLive());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.petmuc.payment.adapter.schedulers;
+
+import com.petmuc.payment.domain.services.PaymentPartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Creates upcoming payments partitions and detaches expired ones. Also runs once during startup, before the web
+ * server accepts requests, so the current month's partition exists before the first payment is inserted; if that
+ * run fails the application does not start. Later runs only log failures, as the premade months leave time to fix them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.partitioning", name = "enabled", matchIfMissing = true)
+public class PaymentPartitionMaintainer implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(PaymentPartitionMaintainer.class);
+
+    private final PaymentPartitionService paymentPartitionService;
+
+    public PaymentPartitionMaintainer(PaymentPartitionService paymentPartitionService) {
+        this.paymentPartitionService = paymentPartitionService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        paymentPartitionService.maintainPartitions(YearMonth.now());
+    }
+
+    @Scheduled(fixedDelayString = "${payment.partitioning.interval:PT6H}", initialDelayString = "${payment.partitioning.interval:PT6H}")
+    public void maintain() {
+        try {
+            paymentPartitionService.maintainPartitions(YearMonth.now());
+        } catch (DataAccessException e) {
+            log.error("Payments partition maintenance failed: {}", e.getMessage());
+        }
+    }
+}
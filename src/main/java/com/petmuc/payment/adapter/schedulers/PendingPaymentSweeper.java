@@ -0,0 +1,35 @@
+package com.petmuc.payment.adapter.schedulers;
+
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.services.PaymentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-drives payments that were recorded as PENDING but never finalized, e.g. because the instance
+ * crashed or the gateway timed out between the first and the last phase of {@code makePayment}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.recovery", name = "enabled", matchIfMissing = true)
+public class PendingPaymentSweeper {
+    private static final Logger log = LoggerFactory.getLogger(PendingPaymentSweeper.class);
+
+    private final PaymentService paymentService;
+    private final PaymentProperties.Recovery recovery;
+
+    public PendingPaymentSweeper(PaymentService paymentService, PaymentProperties paymentProperties) {
+        this.paymentService = paymentService;
+        this.recovery = paymentProperties.getRecovery();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.recovery.interval:PT30S}", initialDelayString = "${payment.recovery.interval:PT30S}")
+    public void sweep() {
+        int settled = paymentService.recoverPendingPayments(recovery.getBatchSize());
+        if (settled > 0) {
+            log.info("Settled {} stale pending payments", settled);
+        }
+    }
+}
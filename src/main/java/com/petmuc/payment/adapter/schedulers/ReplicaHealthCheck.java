@@ -0,0 +1,36 @@
+package com.petmuc.payment.adapter.schedulers;
+
+import com.petmuc.payment.config.DataSourceProperties;
+import com.petmuc.payment.config.ReplicaRoutingDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Validates the read replicas so reads stop going to a replica that is down and return once it recovers.
+ */
+@Component
+@ConditionalOnProperty(prefix = "spring.datasource.replicas", name = "enabled")
+public class ReplicaHealthCheck {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final DataSourceProperties.Replicas replicas;
+
+    public ReplicaHealthCheck(DataSource dataSource, DataSourceProperties dataSourceProperties) throws SQLException {
+        this.routingDataSource = dataSource.isWrapperFor(ReplicaRoutingDataSource.class)
+                ? dataSource.unwrap(ReplicaRoutingDataSource.class)
+                : null;
+        this.replicas = dataSourceProperties.getReplicas();
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.replicas.health-check-interval:PT5S}",
+            initialDelayString = "${spring.datasource.replicas.health-check-interval:PT5S}")
+    public void check() {
+        if (routingDataSource != null) {
+            routingDataSource.checkReplicas(replicas.getHealthCheckTimeout());
+        }
+    }
+}
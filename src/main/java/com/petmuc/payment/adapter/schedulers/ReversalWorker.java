@@ -0,0 +1,34 @@
+package com.petmuc.payment.adapter.schedulers;
+
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.services.ReversalService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains the reversal outbox off the request threads.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.reversal", name = "enabled", matchIfMissing = true)
+public class ReversalWorker {
+    private static final Logger log = LoggerFactory.getLogger(ReversalWorker.class);
+
+    private final ReversalService reversalService;
+    private final PaymentProperties.Reversal reversal;
+
+    public ReversalWorker(ReversalService reversalService, PaymentProperties paymentProperties) {
+        this.reversalService = reversalService;
+        this.reversal = paymentProperties.getReversal();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.reversal.interval:PT5S}", initialDelayString = "${payment.reversal.interval:PT5S}")
+    public void drain() {
+        int attempted = reversalService.processDueReversals(reversal.getMaxBatchesPerRun());
+        if (attempted > 0) {
+            log.info("Attempted {} payment reversals", attempted);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.petmuc.payment.adapter.simulator;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmuc.payment.api.dtos.ErrorResponse;
+import com.petmuc.payment.api.dtos.PaymentRequest;
+import com.petmuc.payment.api.dtos.PaymentResponse;
+import com.petmuc.payment.api.dtos.ReversalRequest;
+import com.petmuc.payment.api.dtos.ReversalResponse;
+import com.petmuc.payment.config.ExecutorConfig;
+import com.petmuc.payment.config.GatewayProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * A stand-in for the external payment gateway, for running and load-testing the service offline. It serves the
+ * endpoints of {@code RestClient} on its own port and thread pool, so simulated gateway latency holds simulator
+ * threads rather than the service's request threads.
+ * <p>
+ * Every call waits for a latency drawn from a log-normal distribution, then fails with 503 at the configured error
+ * rate. Otherwise single payments and reversals are declined with 402 at the decline rate and succeed with 201;
+ * batch calls decline items individually. Error and decline bodies are {@link ErrorResponse}s, like the real
+ * gateway's. Each request draws its latency and outcome from a random source seeded with the configured seed and the
+ * request's reference, so with the same seed a reference gets the same answer however requests interleave across
+ * the simulator's threads, and a retry of it gets that answer again.
+ */
+@Component
+@Profile(GatewaySimulator.PROFILE)
+public class GatewaySimulator implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(GatewaySimulator.class);
+
+    public static final String PROFILE = "gateway-simulator";
+
+    // 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.326;
+
+    private final GatewayProperties.Simulator simulator;
+    private final ObjectMapper objectMapper;
+    private final double medianMillis;
+    private final double sigma;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public GatewaySimulator(GatewayProperties gatewayProperties, ObjectMapper objectMapper) {
+        this.simulator = gatewayProperties.getSimulator();
+        this.objectMapper = objectMapper;
+        this.medianMillis = simulator.getMedianLatency().toNanos() / 1e6;
+        this.sigma = Math.log((double) simulator.getP99Latency().toNanos() / simulator.getMedianLatency().toNanos()) / Z_99;
+    }
+
+    @Override
+    public void start() {
+        ThreadFactory threadFactory = ExecutorConfig.virtualThreadFactory("gateway-simulator-")
+                .orElseGet(Executors::defaultThreadFactory);
+        executor = Executors.newFixedThreadPool(simulator.getThreads(), threadFactory);
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", simulator.getPort()), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.createContext("/payments", handler(this::payment));
+        server.createContext("/payments/batch", handler(this::paymentBatch));
+        server.createContext("/payments/reversal", handler(this::reversal));
+        server.setExecutor(executor);
+        server.start();
+        log.info("Gateway simulator listening on port {}", server.getAddress().getPort());
+    }
+
+    @Override
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    private Reply payment(HttpExchange exchange) throws IOException, InterruptedException {
+        PaymentRequest request = objectMapper.readValue(exchange.getRequestBody(), PaymentRequest.class);
+        Random random = randomFor(request.reference());
+        return respond(random, () -> roll(random, simulator.getDeclineRate())
+                ? new Reply(HttpStatus.PAYMENT_REQUIRED, new ErrorResponse("Insufficient funds"))
+                : new Reply(HttpStatus.CREATED, new PaymentResponse(true, "Approved " + request.reference())));
+    }
+
+    private Reply paymentBatch(HttpExchange exchange) throws IOException, InterruptedException {
+        List<PaymentRequest> requests = objectMapper.readValue(exchange.getRequestBody(), new TypeReference<>() {
+        });
+        Random random = randomFor(requests.stream().map(PaymentRequest::reference).collect(Collectors.joining(",")));
+        return respond(random, () -> new Reply(HttpStatus.OK, requests.stream()
+                .map(request -> roll(randomFor(request.reference()), simulator.getDeclineRate())
+                        ? new PaymentResponse(false, "Insufficient funds")
+                        : new PaymentResponse(true, "Approved " + request.reference()))
+                .toList()));
+    }
+
+    private Reply reversal(HttpExchange exchange) throws IOException, InterruptedException {
+        ReversalRequest request = objectMapper.readValue(exchange.getRequestBody(), ReversalRequest.class);
+        Random random = randomFor("reversal:" + request.reference());
+        return respond(random, () -> roll(random, simulator.getDeclineRate())
+                ? new Reply(HttpStatus.PAYMENT_REQUIRED, new ErrorResponse("Reversal window has closed"))
+                : new Reply(HttpStatus.CREATED, new ReversalResponse(UUID.randomUUID().toString(), request.reference(),
+                        true, request.amount(), "Reversed")));
+    }
+
+    private Reply respond(Random random, Supplier<Reply> outcome) throws InterruptedException {
+        TimeUnit.MICROSECONDS.sleep(latencyMicros(random));
+        if (roll(random, simulator.getErrorRate())) {
+            return new Reply(HttpStatus.SERVICE_UNAVAILABLE, new ErrorResponse("Gateway temporarily unavailable"));
+        }
+        return outcome.get();
+    }
+
+    private HttpHandler handler(Endpoint endpoint) {
+        return exchange -> {
+            try (exchange) {
+                Reply reply;
+                try {
+                    reply = endpoint.handle(exchange);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    reply = new Reply(HttpStatus.SERVICE_UNAVAILABLE, new ErrorResponse("Gateway shutting down"));
+                } catch (IOException e) {
+                    reply = new Reply(HttpStatus.BAD_REQUEST, new ErrorResponse(e.getMessage()));
+                }
+                byte[] body = objectMapper.writeValueAsBytes(reply.body());
+                exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+                exchange.sendResponseHeaders(reply.status().value(), body.length);
+                exchange.getResponseBody().write(body);
+            }
+        };
+    }
+
+    private Random randomFor(String reference) {
+        return new Random(31 * simulator.getSeed() + Objects.hashCode(reference));
+    }
+
+    private long latencyMicros(Random random) {
+        return (long) (medianMillis * Math.exp(sigma * random.nextGaussian()) * 1000);
+    }
+
+    private static boolean roll(Random random, double rate) {
+        return rate > 0 && random.nextDouble() < rate;
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        Reply handle(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+
+    private record Reply(HttpStatus status, Object body) {
+    }
+}
@@ -1,9 +1,30 @@
 package com.petmuc.payment.aop;
 
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
 
+/**
+ * Times the API facade and the customer service.
+ */
 @Aspect
 @Component
 public class CustomerLoggingAspect {
+
+    private final MethodLatencyRecorder methodLatencyRecorder;
+
+    public CustomerLoggingAspect(MethodLatencyRecorder methodLatencyRecorder) {
+        this.methodLatencyRecorder = methodLatencyRecorder;
+    }
+
+    @Around("execution(* com.petmuc.payment.adapter.facades.CustomerPaymentFacade.*(..))")
+    public Object timeFacade(ProceedingJoinPoint joinPoint) throws Throwable {
+        return methodLatencyRecorder.time(joinPoint, "facade");
+    }
+
+    @Around("execution(* com.petmuc.payment.domain.services.CustomerService.*(..))")
+    public Object timeCustomerService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return methodLatencyRecorder.time(joinPoint, "service");
+    }
 }
@@ -0,0 +1,69 @@
+package com.petmuc.payment.aop;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared by the timing aspects: records how long an advised call took into {@value #METRIC_NAME}, tagged by layer,
+ * interface, method, outcome and exception type. Timers are resolved once per method and outcome and then reused,
+ * so the per-call cost is a clock read and a map lookup.
+ */
+@Component
+public class MethodLatencyRecorder {
+
+    static final String METRIC_NAME = "payment.method.latency";
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public MethodLatencyRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        final long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            record(joinPoint, layer, NONE, start);
+            return result;
+        } catch (Throwable e) {
+            record(joinPoint, layer, e.getClass().getSimpleName(), start);
+            throw e;
+        }
+    }
+
+    private void record(ProceedingJoinPoint joinPoint, String layer, String exception, long start) {
+        final long elapsed = System.nanoTime() - start;
+        final Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        timers.computeIfAbsent(new TimerKey(method, layer, exception), this::register)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer register(TimerKey key) {
+        return Timer.builder(METRIC_NAME)
+                .description("Latency of facade, service and gateway client calls")
+                .tag("layer", key.layer())
+                .tag("class", key.method().getDeclaringClass().getSimpleName())
+                .tag("method", key.method().getName())
+                .tag("outcome", NONE.equals(key.exception()) ? "success" : "error")
+                .tag("exception", key.exception())
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+
+    private record TimerKey(Method method, String layer, String exception) {
+    }
+}
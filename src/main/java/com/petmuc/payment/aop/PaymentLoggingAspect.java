@@ -1,9 +1,37 @@
 package com.petmuc.payment.aop;
 
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
 
+/**
+ * Times the payment services and both sides of the gateway: {@code PaymentGateway} includes the circuit breaker and
+ * bulkhead, {@code RestClient} is the bare HTTP call.
+ */
 @Aspect
 @Component
 public class PaymentLoggingAspect {
+
+    private final MethodLatencyRecorder methodLatencyRecorder;
+
+    public PaymentLoggingAspect(MethodLatencyRecorder methodLatencyRecorder) {
+        this.methodLatencyRecorder = methodLatencyRecorder;
+    }
+
+    @Around("execution(* com.petmuc.payment.domain.services.PaymentService.*(..))"
+            + " || execution(* com.petmuc.payment.domain.services.IdempotencyService.*(..))")
+    public Object timePaymentService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return methodLatencyRecorder.time(joinPoint, "service");
+    }
+
+    @Around("execution(* com.petmuc.payment.adapter.clients.PaymentGateway.*(..))")
+    public Object timePaymentGateway(ProceedingJoinPoint joinPoint) throws Throwable {
+        return methodLatencyRecorder.time(joinPoint, "gateway");
+    }
+
+    @Around("execution(* com.petmuc.payment.adapter.clients.RestClient.*(..))")
+    public Object timeRestClient(ProceedingJoinPoint joinPoint) throws Throwable {
+        return methodLatencyRecorder.time(joinPoint, "client");
+    }
 }
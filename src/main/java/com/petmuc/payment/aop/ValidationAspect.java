@@ -1,9 +1,39 @@
 package com.petmuc.payment.aop;
 
+import com.petmuc.payment.exception.ValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts requests rejected as invalid by the services, so a spike in 4xx responses can be traced to the check
+ * that caused it without reading logs.
+ */
 @Aspect
 @Component
 public class ValidationAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ValidationAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @AfterThrowing(pointcut = "execution(* com.petmuc.payment.adapter.facades.CustomerPaymentFacade.*(..))",
+            throwing = "e")
+    public void countRejection(JoinPoint joinPoint, ValidationException e) {
+        final String method = joinPoint.getSignature().getName();
+        counters.computeIfAbsent(method, name -> Counter.builder("payment.validation.rejections")
+                        .description("Requests rejected by service-level validation")
+                        .tag("method", name)
+                        .register(meterRegistry))
+                .increment();
+    }
 }
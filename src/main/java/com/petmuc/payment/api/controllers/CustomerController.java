@@ -1,27 +1,66 @@
 package com.petmuc.payment.api.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.petmuc.payment.adapter.facades.CustomerPaymentFacade;
+import com.petmuc.payment.api.dtos.CustomerImportResult;
+import com.petmuc.payment.api.dtos.PaymentBatchItemResult;
+import com.petmuc.payment.api.dtos.PaymentPage;
+import com.petmuc.payment.api.dtos.PaymentStatusView;
+import com.petmuc.payment.api.dtos.PaymentView;
+import com.petmuc.payment.config.PaymentProperties;
 import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.CustomerImportFormat;
+import com.petmuc.payment.domain.models.CustomerPaymentSummary;
 import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentExport;
+import com.petmuc.payment.domain.models.PaymentReversal;
+import com.petmuc.payment.domain.models.PaymentStatus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/customers")
 public class CustomerController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String TEXT_CSV_VALUE = "text/csv";
+    static final String GZIP_ENCODING = "gzip";
+    static final String PREFER_HEADER = "Prefer";
+    static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    static final String RESPOND_ASYNC = "respond-async";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final CustomerPaymentFacade facade;
+    private final ObjectMapper objectMapper;
+    private final String retryAfterSeconds;
 
-    public CustomerController(CustomerPaymentFacade facade) {
+    public CustomerController(CustomerPaymentFacade facade, ObjectMapper objectMapper, PaymentProperties paymentProperties) {
         this.facade = facade;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, paymentProperties.getAsync().getRetryAfter().toSeconds()));
     }
 
     @PostMapping
@@ -36,6 +75,31 @@ public class CustomerController {
         return new ResponseEntity<>(facade.createCustomer(customer), HttpStatus.CREATED);
     }
 
+    @PostMapping(path = "/import", consumes = TEXT_CSV_VALUE)
+    @Operation(summary = "Import customers from CSV", description = "Bulk-creates customers from a CSV upload with a name,email header row. "
+            + "The upload is streamed into the database as it arrives. Rows whose email already exists or repeats within the upload, "
+            + "and rows with a missing or invalid field, are skipped and reported; every other row is imported.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished, see the counts and rejected rows"),
+            @ApiResponse(responseCode = "400", description = "The upload is not valid CSV or its header does not match"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<CustomerImportResult> importCustomersFromCsv(InputStream upload) {
+        return new ResponseEntity<>(facade.importCustomers(upload, CustomerImportFormat.CSV), HttpStatus.OK);
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import customers from NDJSON", description = "Bulk-creates customers from newline-delimited JSON objects with name and email. "
+            + "Rejected rows are reported the same way as for CSV imports.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished, see the counts and rejected rows"),
+            @ApiResponse(responseCode = "400", description = "The upload is not valid NDJSON"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<CustomerImportResult> importCustomersFromNdjson(InputStream upload) {
+        return new ResponseEntity<>(facade.importCustomers(upload, CustomerImportFormat.NDJSON), HttpStatus.OK);
+    }
+
     @PutMapping("/{customerId}")
     @Operation(summary = "Update an existing customer", description = "Updates the details of an existing customer identified by ID.")
     @ApiResponses({
@@ -62,28 +126,90 @@ public class CustomerController {
     }
 
     @GetMapping("/{customerId}/payments")
-    @Operation(summary = "Get payments by customer ID", description = "Retrieve all payments associated with a customer.")
+    @Operation(summary = "Get payments by customer ID", description = "Retrieve a page of payments associated with a customer, newest first. "
+            + "When more payments exist, the continuation token is returned in the X-Next-Cursor header and as a Link header with rel=\"next\".")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "List of payments retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
+            @ApiResponse(responseCode = "404", description = "Customer not found")
+    })
+    public ResponseEntity<List<PaymentView>> getPaymentsByCustomerId(
+            @Parameter(description = "ID of the customer") @PathVariable Long customerId,
+            @Parameter(description = "Continuation token from a previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of payments to return") @RequestParam(required = false) Integer limit) {
+        PaymentPage page = facade.getPaymentsByCustomerId(customerId, cursor, limit);
+        if (page.nextCursor() == null) {
+            return new ResponseEntity<>(page.items(), HttpStatus.OK);
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.nextCursor())
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, page.nextCursor())
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page.items());
+    }
+
+    @GetMapping("/{customerId}/payments/summary")
+    @Operation(summary = "Get a customer's payment summary", description = "Retrieve the number and total amount of a customer's settled payments, "
+            + "how many of them were reversed, and when the latest one was made. The summary is kept up to date as payments settle, "
+            + "so it costs the same regardless of the customer's payment history.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successful operation"),
             @ApiResponse(responseCode = "404", description = "Customer not found")
     })
-    public ResponseEntity<List<Payment>> getPaymentsByCustomerId(
+    public ResponseEntity<CustomerPaymentSummary> getPaymentSummary(
             @Parameter(description = "ID of the customer") @PathVariable Long customerId) {
-        return new ResponseEntity<>(facade.getPaymentsByCustomerId(customerId), HttpStatus.OK);
+        return new ResponseEntity<>(facade.getPaymentSummary(customerId), HttpStatus.OK);
     }
 
     @PostMapping("/{customerId}/payments")
-    @Operation(summary = "Make a payment for a customer", description = "Creates a new payment for a customer identified by ID.")
+    @Operation(summary = "Make a payment for a customer", description = "Creates a new payment for a customer identified by ID. "
+            + "Requests retried with the same Idempotency-Key return the original payment instead of charging again. "
+            + "With Prefer: respond-async the payment is accepted as PENDING without waiting for the gateway; "
+            + "poll the URL in the Location header for its outcome.")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Payment created successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid input or validation error"),
+            @ApiResponse(responseCode = "202", description = "Payment accepted and queued, see the Location header"),
+            @ApiResponse(responseCode = "400", description = "Invalid input, or Idempotency-Key reused for a different payment"),
             @ApiResponse(responseCode = "404", description = "Customer not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
+            @ApiResponse(responseCode = "429", description = "Too many payments for this customer, retry after the Retry-After header"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<Payment> makePayment(
             @Parameter(description = "ID of the customer") @PathVariable Long customerId,
+            @Parameter(description = "Client-generated key that makes retries of this request safe")
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Parameter(description = "respond-async to get 202 Accepted instead of waiting for the gateway")
+            @RequestHeader(name = PREFER_HEADER, required = false) String prefer,
             @RequestBody Payment payment) {
-        return new ResponseEntity<>(facade.makePayment(customerId, payment), HttpStatus.CREATED);
+        if (!prefersAsync(prefer)) {
+            return new ResponseEntity<>(facade.makePayment(customerId, payment, idempotencyKey), HttpStatus.CREATED);
+        }
+        Payment accepted = facade.submitPayment(customerId, payment, idempotencyKey);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/v1/customers/payments/{paymentId}/status")
+                        .buildAndExpand(accepted.getId())
+                        .toUri())
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .body(accepted);
+    }
+
+    @PostMapping("/{customerId}/payments/batch")
+    @Operation(summary = "Make a batch of payments for a customer", description = "Creates several payments for a customer identified by ID and returns one result per submitted payment, in submission order.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the per-item status"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or batch too large"),
+            @ApiResponse(responseCode = "404", description = "Customer not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<PaymentBatchItemResult>> makePayments(
+            @Parameter(description = "ID of the customer") @PathVariable Long customerId,
+            @RequestBody List<Payment> payments) {
+        return new ResponseEntity<>(facade.makePayments(customerId, payments), HttpStatus.OK);
     }
 
     @GetMapping("/payments/{paymentId}")
@@ -92,11 +218,87 @@ public class CustomerController {
             @ApiResponse(responseCode = "200", description = "Successful operation"),
             @ApiResponse(responseCode = "404", description = "Payment not found")
     })
-    public ResponseEntity<Payment> getPaymentById(
+    public ResponseEntity<PaymentView> getPaymentById(
             @Parameter(description = "ID of the payment") @PathVariable Long paymentId) {
         return new ResponseEntity<>(facade.getPaymentById(paymentId), HttpStatus.OK);
     }
 
+    @GetMapping(path = "/payments/export", produces = TEXT_CSV_VALUE)
+    @Operation(summary = "Export payments as CSV", description = "Streams every payment made on or after from and before to as CSV, "
+            + "straight from the database without loading the payments into memory. Both bounds are optional. "
+            + "The response is gzip-compressed when the request sends Accept-Encoding: gzip.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Payments streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "from is not before to"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @Parameter(description = "First day to export, inclusive") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Day to stop at, exclusive") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        PaymentExport export = facade.exportPayments(from, to);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = outputStream -> {
+            if (!gzip) {
+                export.writeTo(outputStream);
+                return;
+            }
+            GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+            export.writeTo(gzipStream);
+            gzipStream.finish();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("payments.csv").build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        }
+        return response.body(body);
+    }
+
+    @GetMapping("/payments/{paymentId}/status")
+    @Operation(summary = "Get the status of a payment", description = "Reports whether a payment is still PENDING or was settled as "
+            + "SUCCEEDED or FAILED. While it is PENDING the Retry-After header says when to poll again.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successful operation"),
+            @ApiResponse(responseCode = "404", description = "Payment not found")
+    })
+    public ResponseEntity<PaymentStatusView> getPaymentStatus(
+            @Parameter(description = "ID of the payment") @PathVariable Long paymentId) {
+        PaymentStatusView status = facade.getPaymentStatus(paymentId);
+        if (status.status() != PaymentStatus.PENDING) {
+            return new ResponseEntity<>(status, HttpStatus.OK);
+        }
+        return ResponseEntity.ok().header(HttpHeaders.RETRY_AFTER, retryAfterSeconds).body(status);
+    }
+
+    @PostMapping("/payments/{paymentId}/reversal")
+    @Operation(summary = "Reverse a payment", description = "Queues a reversal of a succeeded payment. The reversal is sent to the gateway in the background; "
+            + "poll the reversal to see its outcome. Requesting a reversal that is already queued returns the existing one.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Reversal accepted"),
+            @ApiResponse(responseCode = "400", description = "Payment cannot be reversed"),
+            @ApiResponse(responseCode = "404", description = "Payment not found")
+    })
+    public ResponseEntity<PaymentReversal> reversePayment(
+            @Parameter(description = "ID of the payment") @PathVariable Long paymentId) {
+        return new ResponseEntity<>(facade.requestReversal(paymentId), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/payments/{paymentId}/reversal")
+    @Operation(summary = "Get the reversal of a payment", description = "Retrieve the status of a payment's reversal.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successful operation"),
+            @ApiResponse(responseCode = "404", description = "No reversal was requested for this payment")
+    })
+    public ResponseEntity<PaymentReversal> getReversal(
+            @Parameter(description = "ID of the payment") @PathVariable Long paymentId) {
+        return new ResponseEntity<>(facade.getReversalByPaymentId(paymentId), HttpStatus.OK);
+    }
+
     @GetMapping
     @Operation(summary = "Get all customers", description = "Retrieve a list of all customers.")
     @ApiResponses({
@@ -107,6 +309,30 @@ public class CustomerController {
         return new ResponseEntity<>(facade.getAllCustomers(), HttpStatus.OK);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all customers", description = "Streams every customer as newline-delimited JSON, reading the table in id-ordered pages so memory use does not grow with the number of customers.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Customers streamed successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> streamAllCustomers() {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+            ObjectWriter writer = objectMapper.writerFor(Customer.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            facade.streamAllCustomers(customer -> {
+                try {
+                    writer.writeValue(generator, customer);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @DeleteMapping("/{customerId}")
     @Operation(summary = "Delete a customer by ID", description = "Deletes a customer identified by ID.")
     @ApiResponses({
@@ -119,5 +345,41 @@ public class CustomerController {
         facade.deleteCustomer(customerId);
         return ResponseEntity.noContent().build();
     }
-}
 
+    /**
+     * True when gzip is among the accepted encodings and not refused with {@code q=0}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase(GZIP_ENCODING)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].replace(" ", "").matches("[qQ]=0(\\.0{0,3})?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * True when the Prefer header (RFC 7240) asks for {@code respond-async}.
+     */
+    static boolean prefersAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.split(";")[0].trim().equalsIgnoreCase(RESPOND_ASYNC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+package com.petmuc.payment.api.dtos;
+
+/**
+ * A row of a customer import that was not inserted. {@code line} is the 1-based data row of the upload,
+ * not counting the CSV header.
+ */
+public record CustomerImportRejection(long line, String email, Reason reason) {
+
+    public enum Reason {
+        INVALID,
+        DUPLICATE_IN_UPLOAD,
+        ALREADY_EXISTS
+    }
+}
@@ -0,0 +1,11 @@
+package com.petmuc.payment.api.dtos;
+
+import java.util.List;
+
+/**
+ * Outcome of a customer import. The counts cover every row; {@code rejections} lists at most
+ * {@code payment.customer-import.max-reported-rejections} of the rejected rows, in upload order.
+ */
+public record CustomerImportResult(long received, long imported, long alreadyExisting, long duplicates, long invalid,
+                                   List<CustomerImportRejection> rejections) {
+}
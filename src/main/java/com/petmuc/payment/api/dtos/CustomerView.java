@@ -0,0 +1,4 @@
+package com.petmuc.payment.api.dtos;
+
+public record CustomerView(Long id, String name, String email) {
+}
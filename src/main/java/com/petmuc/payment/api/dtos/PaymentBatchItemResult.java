@@ -0,0 +1,6 @@
+package com.petmuc.payment.api.dtos;
+
+import com.petmuc.payment.domain.models.PaymentStatus;
+
+public record PaymentBatchItemResult(int index, Long paymentId, String reference, PaymentStatus status, String message) {
+}
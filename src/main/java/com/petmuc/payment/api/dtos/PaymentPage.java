@@ -0,0 +1,6 @@
+package com.petmuc.payment.api.dtos;
+
+import java.util.List;
+
+public record PaymentPage(List<PaymentView> items, String nextCursor) {
+}
@@ -0,0 +1,10 @@
+package com.petmuc.payment.api.dtos;
+
+import com.petmuc.payment.domain.models.PaymentStatus;
+
+/**
+ * What a client polling an asynchronously submitted payment needs to know: whether it is still PENDING or has been
+ * settled as SUCCEEDED or FAILED.
+ */
+public record PaymentStatusView(Long id, String reference, PaymentStatus status) {
+}
@@ -0,0 +1,19 @@
+package com.petmuc.payment.api.dtos;
+
+import com.petmuc.payment.domain.models.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-side view of a payment and its customer, serialized exactly like the {@code Payment} entity.
+ * Filled by a JPQL constructor expression, so a read is one joined select of the needed columns.
+ */
+public record PaymentView(Long id, String method, BigDecimal amount, CustomerView customer, LocalDateTime paymentDate,
+                          String reference, PaymentStatus status) {
+
+    public PaymentView(Long id, String method, BigDecimal amount, Long customerId, String customerName, String customerEmail,
+                       LocalDateTime paymentDate, String reference, PaymentStatus status) {
+        this(id, method, amount, new CustomerView(customerId, customerName, customerEmail), paymentDate, reference, status);
+    }
+}
@@ -0,0 +1,42 @@
+package com.petmuc.payment.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CUSTOMERS_CACHE = "customers";
+
+    private final PaymentProperties paymentProperties;
+
+    public CacheConfig(PaymentProperties paymentProperties) {
+        this.paymentProperties = paymentProperties;
+    }
+
+    /**
+     * Caffeine evicts with W-TinyLFU, so a burst of one-off lookups cannot push hot customers out of the cache.
+     * Evictions issued inside a transaction are deferred until it commits, so a concurrent read cannot
+     * re-populate the cache with the row that is about to change.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        PaymentProperties.CustomerCache customerCache = paymentProperties.getCustomerCache();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(customerCache.getMaximumSize())
+                .expireAfterWrite(customerCache.getTimeToLive())
+                .recordStats());
+        cacheManager.setCacheNames(List.of(CUSTOMERS_CACHE));
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -1,10 +1,24 @@
 package com.petmuc.payment.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class DataSourceConfig {
@@ -17,12 +31,122 @@ public class DataSourceConfig {
     }
 
     @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setUrl(dataSourceProperties.getUrl());
-        dataSource.setUsername(dataSourceProperties.getUsername());
-        dataSource.setPassword(dataSourceProperties.getPassword());
-        dataSource.setDriverClassName(dataSourceProperties.getDriverClassName());
+    public ReadYourWritesTracker readYourWritesTracker() {
+        DataSourceProperties.Replicas replicas = dataSourceProperties.getReplicas();
+        return new ReadYourWritesTracker(replicas.getReadYourWritesWindow(), replicas.getReadYourWritesMaxClients());
+    }
+
+    @Bean(destroyMethod = "close")
+    public DataSource dataSource(ObjectProvider<MeterRegistry> meterRegistry, ReadYourWritesTracker readYourWritesTracker) {
+        HikariDataSource primary = pooledDataSource(hikariConfig(dataSourceProperties), meterRegistry);
+
+        DataSourceProperties.Replicas replicas = dataSourceProperties.getReplicas();
+        if (!replicas.isEnabled() || replicas.getUrls().isEmpty()) {
+            return primary;
+        }
+        List<DataSource> replicaDataSources = new ArrayList<>(replicas.getUrls().size());
+        for (int index = 0; index < replicas.getUrls().size(); index++) {
+            replicaDataSources.add(pooledDataSource(replicaHikariConfig(dataSourceProperties, index), meterRegistry));
+        }
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replicaDataSources, readYourWritesTracker);
+        meterRegistry.ifAvailable(registry -> Gauge.builder("payment.datasource.replicas.healthy", routingDataSource,
+                        ReplicaRoutingDataSource::healthyReplicas)
+                .description("Read replicas that passed their last health check")
+                .register(registry));
+        return routingDataSource(routingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.datasource.replicas", name = "enabled")
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    /**
+     * Wraps the router so the physical connection is only fetched at the first statement, once the transaction
+     * manager has published whether the transaction is read-only. The defaults stop the proxy from opening a
+     * connection just to find out the auto-commit and isolation settings.
+     */
+    static RoutingDataSource routingDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        RoutingDataSource dataSource = new RoutingDataSource(replicaRoutingDataSource);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    private HikariDataSource pooledDataSource(HikariConfig config, ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+        // The eager constructor starts the pool immediately and fills it up to minimumIdle,
+        // so the first requests after startup do not pay for the TCP and auth handshakes.
+        if (dataSourceProperties.getPool().isWarmUpOnStartup()) {
+            return new HikariDataSource(config);
+        }
+        HikariDataSource dataSource = new HikariDataSource();
+        config.copyStateTo(dataSource);
         return dataSource;
     }
+
+    static HikariConfig replicaHikariConfig(DataSourceProperties properties, int index) {
+        DataSourceProperties.Replicas replicas = properties.getReplicas();
+
+        HikariConfig config = hikariConfig(properties);
+        config.setJdbcUrl(replicas.getUrls().get(index));
+        if (replicas.getUsername() != null) {
+            config.setUsername(replicas.getUsername());
+        }
+        if (replicas.getPassword() != null) {
+            config.setPassword(replicas.getPassword());
+        }
+        config.setPoolName(properties.getPool().getName() + "-replica-" + index);
+        config.setReadOnly(true);
+        return config;
+    }
+
+    static HikariConfig hikariConfig(DataSourceProperties properties) {
+        DataSourceProperties.Pool pool = properties.getPool();
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(properties.getUrl());
+        config.setUsername(properties.getUsername());
+        config.setPassword(properties.getPassword());
+        if (properties.getDriverClassName() != null) {
+            config.setDriverClassName(properties.getDriverClassName());
+        }
+
+        config.setPoolName(pool.getName());
+        config.setMaximumPoolSize(pool.getMaximumPoolSize());
+        config.setMinimumIdle(pool.getMinimumIdle());
+        config.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        config.setIdleTimeout(pool.getIdleTimeout().toMillis());
+        config.setMaxLifetime(pool.getMaxLifetime().toMillis());
+        config.setKeepaliveTime(pool.getKeepaliveTime().toMillis());
+        config.setLeakDetectionThreshold(pool.getLeakDetectionThreshold().toMillis());
+
+        // pgjdbc switches to named server-side prepared statements after prepareThreshold executions
+        // and keeps them per connection, so pooled connections skip re-parsing and re-planning hot queries.
+        config.addDataSourceProperty("prepareThreshold", pool.getPrepareThreshold());
+        config.addDataSourceProperty("preparedStatementCacheQueries", pool.getPreparedStatementCacheQueries());
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", pool.getPreparedStatementCacheSizeMiB());
+        // Collapses a JDBC insert batch into multi-row INSERT statements on the wire.
+        config.addDataSourceProperty("reWriteBatchedInserts", pool.isRewriteBatchedInserts());
+        return config;
+    }
+
+    /**
+     * Closes the replica and primary pools with the application context.
+     */
+    static class RoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+        RoutingDataSource(ReplicaRoutingDataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public void close() throws IOException {
+            ((ReplicaRoutingDataSource) obtainTargetDataSource()).close();
+        }
+    }
 }
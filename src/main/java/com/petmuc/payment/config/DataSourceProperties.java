@@ -3,6 +3,10 @@ package com.petmuc.payment.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "spring.datasource")
 public class DataSourceProperties {
@@ -11,6 +15,8 @@ public class DataSourceProperties {
     private String username;
     private String password;
     private String driverClassName;
+    private final Pool pool = new Pool();
+    private final Replicas replicas = new Replicas();
 
 
     public String getUrl() {
@@ -44,4 +50,216 @@ public class DataSourceProperties {
     public void setDriverClassName(String driverClassName) {
         this.driverClassName = driverClassName;
     }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Replicas getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Connection pool settings, bound from {@code spring.datasource.pool.*}.
+     */
+    public static class Pool {
+
+        private String name = "payment-pool";
+        private int maximumPoolSize = 20;
+        private int minimumIdle = 5;
+        private Duration connectionTimeout = Duration.ofSeconds(3);
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private Duration maxLifetime = Duration.ofMinutes(30);
+        private Duration keepaliveTime = Duration.ofMinutes(5);
+        private Duration leakDetectionThreshold = Duration.ZERO;
+        private boolean warmUpOnStartup = true;
+        private int prepareThreshold = 5;
+        private int preparedStatementCacheQueries = 256;
+        private int preparedStatementCacheSizeMiB = 5;
+        private boolean rewriteBatchedInserts = true;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+
+        public void setMinimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public Duration getMaxLifetime() {
+            return maxLifetime;
+        }
+
+        public void setMaxLifetime(Duration maxLifetime) {
+            this.maxLifetime = maxLifetime;
+        }
+
+        public Duration getKeepaliveTime() {
+            return keepaliveTime;
+        }
+
+        public void setKeepaliveTime(Duration keepaliveTime) {
+            this.keepaliveTime = keepaliveTime;
+        }
+
+        public Duration getLeakDetectionThreshold() {
+            return leakDetectionThreshold;
+        }
+
+        public void setLeakDetectionThreshold(Duration leakDetectionThreshold) {
+            this.leakDetectionThreshold = leakDetectionThreshold;
+        }
+
+        public boolean isWarmUpOnStartup() {
+            return warmUpOnStartup;
+        }
+
+        public void setWarmUpOnStartup(boolean warmUpOnStartup) {
+            this.warmUpOnStartup = warmUpOnStartup;
+        }
+
+        public int getPrepareThreshold() {
+            return prepareThreshold;
+        }
+
+        public void setPrepareThreshold(int prepareThreshold) {
+            this.prepareThreshold = prepareThreshold;
+        }
+
+        public int getPreparedStatementCacheQueries() {
+            return preparedStatementCacheQueries;
+        }
+
+        public void setPreparedStatementCacheQueries(int preparedStatementCacheQueries) {
+            this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+        }
+
+        public int getPreparedStatementCacheSizeMiB() {
+            return preparedStatementCacheSizeMiB;
+        }
+
+        public void setPreparedStatementCacheSizeMiB(int preparedStatementCacheSizeMiB) {
+            this.preparedStatementCacheSizeMiB = preparedStatementCacheSizeMiB;
+        }
+
+        public boolean isRewriteBatchedInserts() {
+            return rewriteBatchedInserts;
+        }
+
+        public void setRewriteBatchedInserts(boolean rewriteBatchedInserts) {
+            this.rewriteBatchedInserts = rewriteBatchedInserts;
+        }
+    }
+
+    /**
+     * Read replicas, bound from {@code spring.datasource.replicas.*}. Each replica gets its own pool with the
+     * primary's pool settings; credentials default to the primary's when not set.
+     */
+    public static class Replicas {
+
+        private boolean enabled = false;
+        private List<String> urls = new ArrayList<>();
+        private String username;
+        private String password;
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+        private Duration healthCheckTimeout = Duration.ofSeconds(1);
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+        private long readYourWritesMaxClients = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Duration getHealthCheckInterval() {
+            return healthCheckInterval;
+        }
+
+        public void setHealthCheckInterval(Duration healthCheckInterval) {
+            this.healthCheckInterval = healthCheckInterval;
+        }
+
+        public Duration getHealthCheckTimeout() {
+            return healthCheckTimeout;
+        }
+
+        public void setHealthCheckTimeout(Duration healthCheckTimeout) {
+            this.healthCheckTimeout = healthCheckTimeout;
+        }
+
+        public Duration getReadYourWritesWindow() {
+            return readYourWritesWindow;
+        }
+
+        public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+
+        public long getReadYourWritesMaxClients() {
+            return readYourWritesMaxClients;
+        }
+
+        public void setReadYourWritesMaxClients(long readYourWritesMaxClients) {
+            this.readYourWritesMaxClients = readYourWritesMaxClients;
+        }
+    }
 }
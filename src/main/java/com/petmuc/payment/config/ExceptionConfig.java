@@ -0,0 +1,15 @@
+package com.petmuc.payment.config;
+
+import com.petmuc.payment.exception.DomainException;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies {@code payment.errors.stackless} to {@link DomainException} at startup.
+ */
+@Configuration
+public class ExceptionConfig {
+
+    public ExceptionConfig(PaymentProperties paymentProperties) {
+        DomainException.setStackTraceEnabled(!paymentProperties.getErrors().isStackless());
+    }
+}
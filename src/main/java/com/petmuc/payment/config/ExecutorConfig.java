@@ -0,0 +1,95 @@
+package com.petmuc.payment.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded executors for background work, so a backlog queues in the database rather than in memory or threads.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    public static final String REVERSAL_EXECUTOR = "reversalExecutor";
+    public static final String ASYNC_PAYMENT_EXECUTOR = "asyncPaymentExecutor";
+    public static final String GATEWAY_BATCH_EXECUTOR = "gatewayBatchExecutor";
+    /**
+     * Lifecycle phase of the payment batch collector: it starts before and stops after the web server.
+     */
+    public static final int GATEWAY_BATCH_PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    /**
+     * At most {@code parallelism} reversals reach the gateway at once; the queue only has to hold one claimed batch.
+     */
+    @Bean(REVERSAL_EXECUTOR)
+    public ThreadPoolTaskExecutor reversalExecutor(PaymentProperties paymentProperties) {
+        PaymentProperties.Reversal reversal = paymentProperties.getReversal();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(reversal.getParallelism());
+        executor.setMaxPoolSize(reversal.getParallelism());
+        executor.setQueueCapacity(reversal.getBatchSize());
+        executor.setThreadNamePrefix("reversal-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Settles asynchronously submitted payments. The workers are virtual threads when the JDK supports them, since
+     * they spend most of their time waiting on the gateway; the pool size still caps concurrent gateway calls.
+     */
+    @Bean(ASYNC_PAYMENT_EXECUTOR)
+    public ThreadPoolTaskExecutor asyncPaymentExecutor(PaymentProperties paymentProperties) {
+        PaymentProperties.Async async = paymentProperties.getAsync();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(async.getWorkers());
+        executor.setMaxPoolSize(async.getWorkers());
+        executor.setQueueCapacity(async.getQueueCapacity());
+        executor.setThreadNamePrefix("payment-async-");
+        if (async.isVirtualThreads()) {
+            virtualThreadFactory("payment-async-").ifPresent(executor::setThreadFactory);
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Sends payment batches to the gateway. When every sender is busy the collecting thread sends the next batch
+     * itself, which stops it gathering new ones until a sender frees up. The pool stops after the collector, so the
+     * batches the collector flushes on shutdown are not held back by a paused pool.
+     */
+    @Bean(GATEWAY_BATCH_EXECUTOR)
+    @ConditionalOnProperty(prefix = "payment.gateway.batching", name = "enabled")
+    public ThreadPoolTaskExecutor gatewayBatchExecutor(GatewayProperties gatewayProperties) {
+        GatewayProperties.Batching batching = gatewayProperties.getBatching();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(batching.getMaxConcurrentBatches());
+        executor.setMaxPoolSize(batching.getMaxConcurrentBatches());
+        executor.setQueueCapacity(0);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("gateway-batch-");
+        executor.setPhase(GATEWAY_BATCH_PHASE - 1);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * A factory for virtual threads, or empty when the JDK the service runs on predates them.
+     */
+    public static Optional<ThreadFactory> virtualThreadFactory(String threadNamePrefix) {
+        try {
+            return Optional.of(new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory());
+        } catch (UnsupportedOperationException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.petmuc.payment.config;
+
+import feign.Client;
+import feign.Request;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces Feign's default {@code HttpURLConnection} client for {@code RestClient} with a pooled,
+ * keep-alive transport selected by {@code payment.gateway.http.transport}.
+ */
+@Configuration
+public class GatewayHttpClientConfig {
+
+    private static final String GATEWAY = "paymentGateway";
+
+    private final GatewayProperties.Http http;
+
+    public GatewayHttpClientConfig(GatewayProperties gatewayProperties) {
+        this.http = gatewayProperties.getHttp();
+    }
+
+    @Bean
+    public Request.Options feignRequestOptions() {
+        return new Request.Options(http.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                http.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS, true);
+    }
+
+    /**
+     * Counts new connections against requests so the pool's reuse ratio can be watched: a ratio far below 1
+     * means keep-alive is not working and every call pays for a TCP and TLS handshake.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "payment.gateway.http", name = "transport", havingValue = "hc5", matchIfMissing = true)
+    public CloseableHttpClient gatewayHttpClient(MeterRegistry meterRegistry) {
+        Counter requests = Counter.builder("payment.gateway.http.requests")
+                .description("Requests sent to the payment gateway")
+                .register(meterRegistry);
+        Counter connectionsCreated = Counter.builder("payment.gateway.http.connections.created")
+                .description("Connections opened to the payment gateway")
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.http.connection.reuse.ratio", () -> {
+                    double sent = requests.count();
+                    return sent == 0 ? 0 : Math.max(0, 1 - connectionsCreated.count() / sent);
+                })
+                .description("Share of gateway requests served on an already open connection")
+                .register(meterRegistry);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(http.getMaxConnections())
+                .setMaxConnPerRoute(http.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(http.getConnectTimeout().toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(http.getReadTimeout().toMillis()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(http.getConnectionTimeToLive().toMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(http.getValidateAfterInactivity().toMillis()))
+                        .build())
+                .setConnectionFactory(socket -> {
+                    connectionsCreated.increment();
+                    return ManagedHttpClientConnectionFactory.INSTANCE.createConnection(socket);
+                })
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, GATEWAY).bindTo(meterRegistry);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(http.getIdleConnectionEviction().toMillis()))
+                .disableCookieManagement()
+                .addRequestInterceptorFirst((request, entity, context) -> requests.increment())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "payment.gateway.http", name = "transport", havingValue = "hc5", matchIfMissing = true)
+    public Client apacheHttp5FeignClient(CloseableHttpClient gatewayHttpClient) {
+        return new ApacheHttp5Client(gatewayHttpClient);
+    }
+
+    /**
+     * The JDK client keeps its own connection pool and multiplexes requests over one connection with HTTP/2.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "payment.gateway.http", name = "transport", havingValue = "jdk")
+    public Client jdkFeignClient() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(http.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(http.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        return new Http2Client(httpClient);
+    }
+}
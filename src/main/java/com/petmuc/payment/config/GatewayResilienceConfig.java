@@ -0,0 +1,83 @@
+package com.petmuc.payment.config;
+
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class GatewayResilienceConfig {
+    private static final Logger log = LoggerFactory.getLogger(GatewayResilienceConfig.class);
+
+    public static final String PAYMENT_GATEWAY = "paymentGateway";
+
+    private final GatewayProperties gatewayProperties;
+
+    public GatewayResilienceConfig(GatewayProperties gatewayProperties) {
+        this.gatewayProperties = gatewayProperties;
+    }
+
+    /**
+     * 4xx responses are business declines and a saturated bulkhead is local back-pressure; neither says
+     * the gateway is unhealthy, so they do not count towards the failure rate.
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(ObjectProvider<MeterRegistry> meterRegistry) {
+        GatewayProperties.CircuitBreaker properties = gatewayProperties.getCircuitBreaker();
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(properties.getSlowCallDurationThreshold())
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(properties.getPermittedNumberOfCallsInHalfOpenState())
+                .ignoreExceptions(FeignException.FeignClientException.class, BulkheadFullException.class)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        meterRegistry.ifAvailable(meters -> TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meters));
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(ObjectProvider<MeterRegistry> meterRegistry) {
+        GatewayProperties.Bulkhead properties = gatewayProperties.getBulkhead();
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .maxWaitDuration(properties.getMaxWaitDuration())
+                .build();
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        meterRegistry.ifAvailable(meters -> TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meters));
+        return registry;
+    }
+
+    @Bean
+    public CircuitBreaker paymentGatewayCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(PAYMENT_GATEWAY);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Payment gateway circuit breaker {}", event.getStateTransition());
+            meterRegistry.ifAvailable(meters -> meters.counter("payment.gateway.circuit.transitions",
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name()).increment());
+        });
+        return circuitBreaker;
+    }
+
+    @Bean
+    public Bulkhead paymentGatewayBulkhead(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.bulkhead(PAYMENT_GATEWAY);
+    }
+}
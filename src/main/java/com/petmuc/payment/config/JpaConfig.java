@@ -0,0 +1,58 @@
+package com.petmuc.payment.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    private final PaymentProperties paymentProperties;
+
+    public JpaConfig(PaymentProperties paymentProperties) {
+        this.paymentProperties = paymentProperties;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_BATCH_SIZE, paymentProperties.getBatch().getJdbcBatchSize());
+            properties.put(AvailableSettings.ORDER_INSERTS, true);
+            properties.put(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+
+    /**
+     * Hibernate's own slow-query log prints bind values, so it is silenced in application.yml and the threshold only
+     * feeds {@link RedactingStatistics}, which needs statistics switched on.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlMonitoringCustomizer() {
+        PaymentProperties.SqlMonitoring sqlMonitoring = paymentProperties.getSqlMonitoring();
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+            properties.put(AvailableSettings.GENERATE_STATISTICS, sqlMonitoring.isStatistics());
+            if (sqlMonitoring.isStatistics()) {
+                properties.put(AvailableSettings.STATS_BUILDER, RedactingStatistics.FACTORY);
+                properties.put(AvailableSettings.LOG_SLOW_QUERY, sqlMonitoring.getSlowQueryThreshold().toMillis());
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "payment.sql-monitoring", name = "request-counts", matchIfMissing = true)
+    public FilterRegistrationBean<SqlStatementCountFilter> sqlStatementCountFilter(MeterRegistry meterRegistry) {
+        return new FilterRegistrationBean<>(new SqlStatementCountFilter(meterRegistry));
+    }
+
+    @Bean
+    public SqlStatisticsEndpoint sqlStatisticsEndpoint(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        return new SqlStatisticsEndpoint(entityManagerFactory.unwrap(SessionFactory.class).getStatistics(), meterRegistry);
+    }
+}
@@ -0,0 +1,577 @@
+package com.petmuc.payment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "payment")
+public class PaymentProperties {
+
+    private final Recovery recovery = new Recovery();
+    private final Batch batch = new Batch();
+    private final Export export = new Export();
+    private final Paging paging = new Paging();
+    private final CustomerCache customerCache = new CustomerCache();
+    private final Idempotency idempotency = new Idempotency();
+    private final Errors errors = new Errors();
+    private final Reversal reversal = new Reversal();
+    private final Partitioning partitioning = new Partitioning();
+    private final CustomerImport customerImport = new CustomerImport();
+    private final Async async = new Async();
+    private final RateLimit rateLimit = new RateLimit();
+    private final SqlMonitoring sqlMonitoring = new SqlMonitoring();
+
+    public Recovery getRecovery() {
+        return recovery;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Paging getPaging() {
+        return paging;
+    }
+
+    public CustomerCache getCustomerCache() {
+        return customerCache;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public Errors getErrors() {
+        return errors;
+    }
+
+    public Reversal getReversal() {
+        return reversal;
+    }
+
+    public Partitioning getPartitioning() {
+        return partitioning;
+    }
+
+    public CustomerImport getCustomerImport() {
+        return customerImport;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public SqlMonitoring getSqlMonitoring() {
+        return sqlMonitoring;
+    }
+
+    /**
+     * Settings for the sweeper that re-drives payments left in PENDING, bound from {@code payment.recovery.*}.
+     */
+    public static class Recovery {
+
+        private boolean enabled = true;
+        private Duration interval = Duration.ofSeconds(30);
+        private Duration staleAfter = Duration.ofMinutes(2);
+        private int batchSize = 100;
+        private int maxAttempts = 10;
+        private Duration initialBackoff = Duration.ofMinutes(1);
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Duration getStaleAfter() {
+            return staleAfter;
+        }
+
+        public void setStaleAfter(Duration staleAfter) {
+            this.staleAfter = staleAfter;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    /**
+     * Settings for batch payment submission, bound from {@code payment.batch.*}.
+     */
+    public static class Batch {
+
+        private int maxItems = 5000;
+        private int jdbcBatchSize = 50;
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        public int getJdbcBatchSize() {
+            return jdbcBatchSize;
+        }
+
+        public void setJdbcBatchSize(int jdbcBatchSize) {
+            this.jdbcBatchSize = jdbcBatchSize;
+        }
+    }
+
+    /**
+     * Settings for streaming exports, bound from {@code payment.export.*}.
+     */
+    public static class Export {
+
+        private int fetchSize = 1000;
+        private Duration requestTimeout = Duration.ofHours(1);
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public Duration getRequestTimeout() {
+            return requestTimeout;
+        }
+
+        public void setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+        }
+    }
+
+    /**
+     * Page sizes for keyset-paginated payment history, bound from {@code payment.paging.*}.
+     */
+    public static class Paging {
+
+        private int defaultPageSize = 50;
+        private int maxPageSize = 500;
+
+        public int getDefaultPageSize() {
+            return defaultPageSize;
+        }
+
+        public void setDefaultPageSize(int defaultPageSize) {
+            this.defaultPageSize = defaultPageSize;
+        }
+
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+    }
+
+    /**
+     * Bounds for the in-process customer cache, bound from {@code payment.customer-cache.*}.
+     */
+    public static class CustomerCache {
+
+        private long maximumSize = 10_000;
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    /**
+     * Settings for {@code Idempotency-Key} handling on payment creation, bound from {@code payment.idempotency.*}.
+     */
+    public static class Idempotency {
+
+        private Duration timeToLive = Duration.ofHours(24);
+        private long maximumSize = 10_000;
+        private Duration inFlightWait = Duration.ofSeconds(30);
+        private Duration purgeInterval = Duration.ofHours(1);
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getInFlightWait() {
+            return inFlightWait;
+        }
+
+        public void setInFlightWait(Duration inFlightWait) {
+            this.inFlightWait = inFlightWait;
+        }
+
+        public Duration getPurgeInterval() {
+            return purgeInterval;
+        }
+
+        public void setPurgeInterval(Duration purgeInterval) {
+            this.purgeInterval = purgeInterval;
+        }
+    }
+
+    /**
+     * Error handling settings, bound from {@code payment.errors.*}.
+     */
+    public static class Errors {
+
+        private boolean stackless = false;
+
+        public boolean isStackless() {
+            return stackless;
+        }
+
+        public void setStackless(boolean stackless) {
+            this.stackless = stackless;
+        }
+    }
+
+    /**
+     * Settings for the reversal outbox worker, bound from {@code payment.reversal.*}.
+     */
+    public static class Reversal {
+
+        private boolean enabled = true;
+        private Duration interval = Duration.ofSeconds(5);
+        private int batchSize = 100;
+        private int maxBatchesPerRun = 10;
+        private int parallelism = 8;
+        private int maxAttempts = 8;
+        private Duration initialBackoff = Duration.ofSeconds(5);
+        private Duration maxBackoff = Duration.ofMinutes(30);
+        private Duration lease = Duration.ofMinutes(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxBatchesPerRun() {
+            return maxBatchesPerRun;
+        }
+
+        public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+            this.maxBatchesPerRun = maxBatchesPerRun;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+    }
+
+    /**
+     * Settings for the monthly partitions of the payments table, bound from {@code payment.partitioning.*}.
+     * A {@code retentionMonths} of 0 keeps every partition attached.
+     */
+    public static class Partitioning {
+
+        private boolean enabled = true;
+        private Duration interval = Duration.ofHours(6);
+        private int premakeMonths = 3;
+        private int retentionMonths = 0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getPremakeMonths() {
+            return premakeMonths;
+        }
+
+        public void setPremakeMonths(int premakeMonths) {
+            this.premakeMonths = premakeMonths;
+        }
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+    }
+
+    /**
+     * Settings for bulk customer imports, bound from {@code payment.customer-import.*}.
+     */
+    public static class CustomerImport {
+
+        private int maxReportedRejections = 1000;
+
+        public int getMaxReportedRejections() {
+            return maxReportedRejections;
+        }
+
+        public void setMaxReportedRejections(int maxReportedRejections) {
+            this.maxReportedRejections = maxReportedRejections;
+        }
+    }
+
+    /**
+     * Worker pool for payments submitted asynchronously, bound from {@code payment.async.*}. Payments that find the
+     * queue full stay PENDING and are settled by the recovery sweeper instead.
+     */
+    public static class Async {
+
+        private int workers = 32;
+        private int queueCapacity = 1000;
+        private boolean virtualThreads = true;
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    /**
+     * Per-customer limit on payment creation, bound from {@code payment.rate-limit.*}. A customer can make
+     * {@code burst} payments at once and then {@code paymentsPerSecond} on average.
+     */
+    public static class RateLimit {
+
+        private boolean enabled = true;
+        private double paymentsPerSecond = 10;
+        private int burst = 20;
+        private long maximumCustomers = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPaymentsPerSecond() {
+            return paymentsPerSecond;
+        }
+
+        public void setPaymentsPerSecond(double paymentsPerSecond) {
+            this.paymentsPerSecond = paymentsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public long getMaximumCustomers() {
+            return maximumCustomers;
+        }
+
+        public void setMaximumCustomers(long maximumCustomers) {
+            this.maximumCustomers = maximumCustomers;
+        }
+    }
+
+    /**
+     * Visibility into the SQL issued through JPA, bound from {@code payment.sql-monitoring.*}. The slow-query log
+     * relies on Hibernate statistics and is off while they are; a zero {@code slowQueryThreshold} also turns it off.
+     */
+    public static class SqlMonitoring {
+
+        private boolean statistics = true;
+        private boolean requestCounts = true;
+        private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+        public boolean isStatistics() {
+            return statistics;
+        }
+
+        public void setStatistics(boolean statistics) {
+            this.statistics = statistics;
+        }
+
+        public boolean isRequestCounts() {
+            return requestCounts;
+        }
+
+        public void setRequestCounts(boolean requestCounts) {
+            this.requestCounts = requestCounts;
+        }
+
+        public Duration getSlowQueryThreshold() {
+            return slowQueryThreshold;
+        }
+
+        public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+            this.slowQueryThreshold = slowQueryThreshold;
+        }
+    }
+}
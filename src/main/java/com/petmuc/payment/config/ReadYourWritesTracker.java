@@ -0,0 +1,46 @@
+package com.petmuc.payment.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Remembers which clients committed a write in the last {@code window}, so their reads stay on the primary
+ * until the replicas have had time to catch up. The client of the current thread is bound by
+ * {@link ReadYourWritesFilter}; work without a bound client (schedulers, workers) is never pinned.
+ * The window is tracked per instance, so it only holds when a client's requests stick to one instance.
+ */
+public class ReadYourWritesTracker {
+
+    private static final ThreadLocal<String> CURRENT_CLIENT = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window, long maxClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    public static void bindClient(String clientId) {
+        CURRENT_CLIENT.set(clientId);
+    }
+
+    public static void clearClient() {
+        CURRENT_CLIENT.remove();
+    }
+
+    public void recordWrite() {
+        String clientId = CURRENT_CLIENT.get();
+        if (clientId != null) {
+            recentWriters.put(clientId, Boolean.TRUE);
+        }
+    }
+
+    public boolean isPinnedToPrimary() {
+        String clientId = CURRENT_CLIENT.get();
+        return clientId != null && recentWriters.getIfPresent(clientId) != null;
+    }
+}
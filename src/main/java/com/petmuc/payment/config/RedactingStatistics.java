@@ -0,0 +1,39 @@
+package com.petmuc.payment.config;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate statistics whose slow-query log never contains bind values. Hibernate reports a slow statement with
+ * the text pgjdbc renders for it, which inlines the bound parameters, so customer data would end up in the log
+ * and in {@link #getSlowQueries()}. Here every string and numeric literal is replaced with {@code ?} first; that
+ * also keeps statements that differ only in their values under one key, where the raw text would add an entry to
+ * the slow-query map for every distinct value.
+ */
+public class RedactingStatistics extends StatisticsImpl {
+    private static final Logger log = LoggerFactory.getLogger(RedactingStatistics.class);
+
+    public static final StatisticsFactory FACTORY = RedactingStatistics::new;
+
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+
+    public RedactingStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Override
+    public void slowQuery(String sql, long executionTime) {
+        String redacted = redact(sql);
+        log.warn("Slow query took {} ms: {}", executionTime, redacted);
+        super.slowQuery(redacted, executionTime);
+    }
+
+    public static String redact(String sql) {
+        return sql == null ? null : LITERAL.matcher(sql).replaceAll("?");
+    }
+}
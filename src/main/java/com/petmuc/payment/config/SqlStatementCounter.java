@@ -0,0 +1,89 @@
+package com.petmuc.payment.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a {@link Recording} is open. Hibernate
+ * hands every statement to the inspector before preparing it, including the ones issued for lazy loads, so a
+ * recording sees exactly what a unit of work sent to the database. Recordings nest: statements also count towards
+ * every enclosing recording. Statements issued through plain JDBC, such as COPY, are not seen.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Starts counting on the current thread until the returned recording is closed.
+     */
+    public static Recording start() {
+        return open(false);
+    }
+
+    /**
+     * Like {@link #start()}, but also keeps the statements, for reporting which ones were issued.
+     */
+    public static Recording startCapturing() {
+        return open(true);
+    }
+
+    private static Recording open(boolean capture) {
+        Recording recording = new Recording(CURRENT.get(), capture);
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Recording recording = CURRENT.get();
+        if (recording != null) {
+            recording.record(sql);
+        }
+        return sql;
+    }
+
+    public static final class Recording implements AutoCloseable {
+
+        private final Recording enclosing;
+        private final List<String> statements;
+        private int count;
+
+        private Recording(Recording enclosing, boolean capture) {
+            this.enclosing = enclosing;
+            this.statements = capture ? new ArrayList<>() : null;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        /**
+         * The statements recorded so far, or an empty list when the recording does not capture them.
+         */
+        public List<String> statements() {
+            return statements != null ? Collections.unmodifiableList(statements) : List.of();
+        }
+
+        private void record(String sql) {
+            count++;
+            if (statements != null) {
+                statements.add(sql);
+            }
+            if (enclosing != null) {
+                enclosing.record(sql);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (enclosing != null) {
+                CURRENT.set(enclosing);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
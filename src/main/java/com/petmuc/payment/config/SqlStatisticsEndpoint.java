@@ -0,0 +1,81 @@
+package com.petmuc.payment.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/sqlstats}: Hibernate statistics since startup or the last reset, and the statements issued per
+ * request as recorded by {@link SqlStatementCountFilter}. Query texts are redacted like the slow-query log.
+ */
+@Endpoint(id = "sqlstats")
+public class SqlStatisticsEndpoint {
+
+    private final Statistics statistics;
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatisticsEndpoint(Statistics statistics, MeterRegistry meterRegistry) {
+        this.statistics = statistics;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public SqlStatistics sqlStatistics() {
+        Map<String, EntityCounts> entities = new TreeMap<>();
+        for (String entityName : statistics.getEntityNames()) {
+            EntityStatistics entity = statistics.getEntityStatistics(entityName);
+            entities.put(entityName, new EntityCounts(entity.getLoadCount(), entity.getFetchCount(),
+                    entity.getInsertCount(), entity.getUpdateCount(), entity.getDeleteCount()));
+        }
+        Map<String, Long> slowQueries = new TreeMap<>(statistics.getSlowQueries());
+        HibernateStatistics hibernate = new HibernateStatistics(statistics.isStatisticsEnabled(),
+                statistics.getPrepareStatementCount(), statistics.getQueryExecutionCount(),
+                statistics.getQueryExecutionMaxTime(), RedactingStatistics.redact(statistics.getQueryExecutionMaxTimeQueryString()),
+                statistics.getEntityLoadCount(), statistics.getEntityFetchCount(), statistics.getCollectionFetchCount(),
+                entities, slowQueries);
+
+        List<RequestStatements> requests = meterRegistry.find(SqlStatementCountFilter.METRIC).summaries().stream()
+                .map(SqlStatisticsEndpoint::requestStatements)
+                .sorted(Comparator.comparingDouble(RequestStatements::mean).reversed())
+                .toList();
+        return new SqlStatistics(hibernate, requests);
+    }
+
+    /**
+     * Starts a new measurement window, for example before a load test.
+     */
+    @DeleteOperation
+    public void reset() {
+        statistics.clear();
+        meterRegistry.find(SqlStatementCountFilter.METRIC).summaries().forEach(meterRegistry::remove);
+    }
+
+    private static RequestStatements requestStatements(DistributionSummary summary) {
+        return new RequestStatements(summary.getId().getTag("method"), summary.getId().getTag("uri"), summary.count(),
+                summary.mean(), summary.max());
+    }
+
+    public record SqlStatistics(HibernateStatistics hibernate, List<RequestStatements> requests) {
+    }
+
+    public record HibernateStatistics(boolean enabled, long prepareStatementCount, long queryExecutionCount,
+                                      long queryExecutionMaxTime, String slowestQuery, long entityLoadCount,
+                                      long entityFetchCount, long collectionFetchCount,
+                                      Map<String, EntityCounts> entities, Map<String, Long> slowQueries) {
+    }
+
+    public record EntityCounts(long loads, long fetches, long inserts, long updates, long deletes) {
+    }
+
+    public record RequestStatements(String method, String uri, long requests, double mean, double max) {
+    }
+}
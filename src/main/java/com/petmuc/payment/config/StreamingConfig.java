@@ -0,0 +1,25 @@
+package com.petmuc.payment.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streamed responses are written as asynchronous requests, which the servlet container otherwise times out after
+ * its own default (30 seconds on Tomcat) and so cuts off long exports mid-file. The streaming endpoints are the
+ * only asynchronous handlers, so the limit is taken from {@code payment.export.request-timeout}.
+ */
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer {
+
+    private final PaymentProperties paymentProperties;
+
+    public StreamingConfig(PaymentProperties paymentProperties) {
+        this.paymentProperties = paymentProperties;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(paymentProperties.getExport().getRequestTimeout().toMillis());
+    }
+}
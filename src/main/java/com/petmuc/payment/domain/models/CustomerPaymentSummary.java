@@ -0,0 +1,93 @@
+package com.petmuc.payment.domain.models;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of a customer's settled payments, updated in the same transaction that settles or reverses a payment.
+ * Reversed payments still count towards {@code paymentCount} and {@code totalAmount}; they are also counted in
+ * {@code reversedCount} and {@code reversedAmount}.
+ */
+@Entity
+@Table(name = "customer_payment_summary")
+public class CustomerPaymentSummary {
+    @Id
+    private Long customerId;
+
+    private long paymentCount;
+    private BigDecimal totalAmount;
+    private long reversedCount;
+    private BigDecimal reversedAmount;
+    private LocalDateTime lastPaymentAt;
+
+    public CustomerPaymentSummary() {
+
+    }
+
+    public CustomerPaymentSummary(Long customerId, long paymentCount, BigDecimal totalAmount, long reversedCount,
+                                  BigDecimal reversedAmount, LocalDateTime lastPaymentAt) {
+        this.customerId = customerId;
+        this.paymentCount = paymentCount;
+        this.totalAmount = totalAmount;
+        this.reversedCount = reversedCount;
+        this.reversedAmount = reversedAmount;
+        this.lastPaymentAt = lastPaymentAt;
+    }
+
+    /**
+     * Summary of a customer that has no settled payments yet.
+     */
+    public static CustomerPaymentSummary empty(Long customerId) {
+        return new CustomerPaymentSummary(customerId, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO, null);
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public long getPaymentCount() {
+        return paymentCount;
+    }
+
+    public void setPaymentCount(long paymentCount) {
+        this.paymentCount = paymentCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public long getReversedCount() {
+        return reversedCount;
+    }
+
+    public void setReversedCount(long reversedCount) {
+        this.reversedCount = reversedCount;
+    }
+
+    public BigDecimal getReversedAmount() {
+        return reversedAmount;
+    }
+
+    public void setReversedAmount(BigDecimal reversedAmount) {
+        this.reversedAmount = reversedAmount;
+    }
+
+    public LocalDateTime getLastPaymentAt() {
+        return lastPaymentAt;
+    }
+
+    public void setLastPaymentAt(LocalDateTime lastPaymentAt) {
+        this.lastPaymentAt = lastPaymentAt;
+    }
+}
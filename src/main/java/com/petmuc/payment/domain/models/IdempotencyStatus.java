@@ -0,0 +1,6 @@
+package com.petmuc.payment.domain.models;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
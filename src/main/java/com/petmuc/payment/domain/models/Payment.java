@@ -1,6 +1,7 @@
 package com.petmuc.payment.domain.models;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.io.Serializable;
@@ -12,19 +13,30 @@ import java.util.UUID;
 @Table(name = "payments")
 public class Payment implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_id_seq")
+    @SequenceGenerator(name = "payments_id_seq", sequenceName = "payments_id_seq", allocationSize = 50)
     private Long id;
 
     private String method;
     private BigDecimal amount;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Customer customer;
 
     private LocalDateTime paymentDate;
 
     private String reference;
 
+    @Enumerated(EnumType.STRING)
+    private PaymentStatus status;
+
+    // Recovery bookkeeping of the pending-payment sweeper, not part of the API representation.
+    @JsonIgnore
+    private int attempts;
+
+    @JsonIgnore
+    private LocalDateTime nextAttemptAt;
+
     public Payment() {
 
     }
@@ -98,4 +110,28 @@ public class Payment implements Serializable {
     public void setReference(String reference) {
         this.reference = reference;
     }
+
+    public PaymentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(PaymentStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
 }
\ No newline at end of file
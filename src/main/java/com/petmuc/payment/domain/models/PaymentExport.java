@@ -0,0 +1,17 @@
+package com.petmuc.payment.domain.models;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A payment export whose range has already been validated. Nothing is read until {@link #writeTo} is called, so a
+ * rejected request fails before the response is committed.
+ */
+@FunctionalInterface
+public interface PaymentExport {
+
+    /**
+     * Writes the payments as CSV with a header row and returns the number of payments written.
+     */
+    long writeTo(OutputStream out) throws IOException;
+}
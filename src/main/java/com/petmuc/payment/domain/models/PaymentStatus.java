@@ -0,0 +1,12 @@
+package com.petmuc.payment.domain.models;
+
+public enum PaymentStatus {
+    PENDING,
+    SUCCEEDED,
+    FAILED,
+    REVERSED,
+    /**
+     * Still unsettled after {@code payment.recovery.max-attempts} recovery attempts; the sweeper no longer retries it.
+     */
+    NEEDS_REVIEW
+}
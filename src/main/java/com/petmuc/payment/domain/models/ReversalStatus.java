@@ -0,0 +1,7 @@
+package com.petmuc.payment.domain.models;
+
+public enum ReversalStatus {
+    PENDING,
+    SUCCEEDED,
+    DEAD
+}
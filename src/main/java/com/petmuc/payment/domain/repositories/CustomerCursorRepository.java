@@ -0,0 +1,33 @@
+package com.petmuc.payment.domain.repositories;
+
+import com.petmuc.payment.domain.models.Customer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reads customers in id order, one keyset page at a time, instead of materializing the table as entities. Each
+ * page is a short primary-key range scan, so a caller can stream the whole table without holding one statement,
+ * transaction or connection open for the entire read.
+ */
+@Repository
+public class CustomerCursorRepository {
+
+    private static final String SELECT_PAGE = "SELECT id, name, email FROM customers WHERE id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerCursorRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns up to {@code limit} customers with an id greater than {@code afterId}, in id order.
+     */
+    public List<Customer> findPageAfter(long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_PAGE,
+                (resultSet, row) -> new Customer(resultSet.getLong("id"), resultSet.getString("name"), resultSet.getString("email")),
+                afterId, limit);
+    }
+}
@@ -0,0 +1,116 @@
+package com.petmuc.payment.domain.repositories;
+
+import com.petmuc.payment.api.dtos.CustomerImportRejection;
+import com.petmuc.payment.api.dtos.CustomerImportResult;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams customer rows into a temporary staging table with {@code COPY FROM STDIN} and merges them into
+ * {@code customers} with set-based statements, classifying every staged row on the way. The staging table is
+ * dropped on commit, so callers must run inside a transaction.
+ */
+@Repository
+public class CustomerImportRepository {
+
+    /**
+     * Receives the stream that feeds COPY and writes CSV with a {@code name,email} header to it.
+     */
+    @FunctionalInterface
+    public interface CsvWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CREATE_STAGING = "CREATE TEMPORARY TABLE customer_import ("
+            + " line BIGINT GENERATED ALWAYS AS IDENTITY, name TEXT, email TEXT, outcome VARCHAR(32)) ON COMMIT DROP";
+    private static final String COPY_STAGING = "COPY customer_import (name, email) FROM STDIN WITH (FORMAT csv, HEADER MATCH)";
+    private static final String INDEX_STAGING = "CREATE INDEX ON customer_import (email)";
+    // Temporary tables are never analyzed by autovacuum; without statistics the merge would be planned for an empty table.
+    private static final String ANALYZE_STAGING = "ANALYZE customer_import";
+
+    private static final String MARK_INVALID = "UPDATE customer_import SET outcome = 'INVALID'"
+            + " WHERE coalesce(trim(name), '') = '' OR coalesce(trim(email), '') = '' OR email NOT LIKE '%_@_%'"
+            + " OR length(name) > 255 OR length(email) > 255";
+    private static final String MARK_DUPLICATES = "UPDATE customer_import staged SET outcome = 'DUPLICATE_IN_UPLOAD'"
+            + " FROM (SELECT line, row_number() OVER (PARTITION BY email ORDER BY line) AS occurrence"
+            + " FROM customer_import WHERE outcome IS NULL) ranked"
+            + " WHERE staged.line = ranked.line AND ranked.occurrence > 1";
+    private static final String MERGE = "WITH inserted AS ("
+            + " INSERT INTO customers (id, name, email)"
+            + " SELECT nextval('customers_id_seq'), name, email FROM customer_import WHERE outcome IS NULL ORDER BY line"
+            + " ON CONFLICT (email) DO NOTHING RETURNING email)"
+            + " UPDATE customer_import staged SET outcome = 'IMPORTED' FROM inserted"
+            + " WHERE staged.email = inserted.email AND staged.outcome IS NULL";
+    private static final String MARK_EXISTING = "UPDATE customer_import SET outcome = 'ALREADY_EXISTS' WHERE outcome IS NULL";
+
+    private static final String COUNT_OUTCOMES = "SELECT outcome, count(*) AS total FROM customer_import GROUP BY outcome";
+    private static final String SELECT_REJECTIONS = "SELECT line, email, outcome FROM customer_import"
+            + " WHERE outcome <> 'IMPORTED' ORDER BY line LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public CustomerImportResult importCustomers(CsvWriter csvWriter, int maxReportedRejections) {
+        jdbcTemplate.execute(CREATE_STAGING);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> copy(connection.unwrap(PGConnection.class), csvWriter));
+        jdbcTemplate.execute(INDEX_STAGING);
+        jdbcTemplate.execute(ANALYZE_STAGING);
+
+        jdbcTemplate.update(MARK_INVALID);
+        jdbcTemplate.update(MARK_DUPLICATES);
+        jdbcTemplate.update(MERGE);
+        jdbcTemplate.update(MARK_EXISTING);
+
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query(COUNT_OUTCOMES, resultSet -> {
+            counts.put(resultSet.getString("outcome"), resultSet.getLong("total"));
+        });
+        List<CustomerImportRejection> rejections = jdbcTemplate.query(SELECT_REJECTIONS, (resultSet, rowNum) ->
+                new CustomerImportRejection(resultSet.getLong("line"), resultSet.getString("email"),
+                        CustomerImportRejection.Reason.valueOf(resultSet.getString("outcome"))), maxReportedRejections);
+
+        long received = counts.values().stream().mapToLong(Long::longValue).sum();
+        return new CustomerImportResult(received, counts.getOrDefault("IMPORTED", 0L),
+                counts.getOrDefault(CustomerImportRejection.Reason.ALREADY_EXISTS.name(), 0L),
+                counts.getOrDefault(CustomerImportRejection.Reason.DUPLICATE_IN_UPLOAD.name(), 0L),
+                counts.getOrDefault(CustomerImportRejection.Reason.INVALID.name(), 0L),
+                rejections);
+    }
+
+    /**
+     * Rows reach the server as the writer produces them, in {@link #COPY_BUFFER_SIZE} chunks, so the upload is never
+     * held in memory. A row the server rejects fails the write or {@code endCopy} with the server's SQLException.
+     */
+    private static long copy(PGConnection connection, CsvWriter csvWriter) throws SQLException {
+        PGCopyOutputStream out = new PGCopyOutputStream(connection, COPY_STAGING, COPY_BUFFER_SIZE);
+        try {
+            csvWriter.writeTo(out);
+            return out.endCopy();
+        } catch (IOException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new UncheckedIOException(e);
+        } finally {
+            if (out.isActive()) {
+                out.cancelCopy();
+            }
+        }
+    }
+}
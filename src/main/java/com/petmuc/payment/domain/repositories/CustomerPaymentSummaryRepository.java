@@ -0,0 +1,54 @@
+package com.petmuc.payment.domain.repositories;
+
+import com.petmuc.payment.domain.models.CustomerPaymentSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The upserts add to the stored totals in one statement, so concurrent settlements for the same customer
+ * serialize on the summary row instead of overwriting each other.
+ */
+@Repository
+public interface CustomerPaymentSummaryRepository extends JpaRepository<CustomerPaymentSummary, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO customer_payment_summary (customer_id, payment_count, total_amount, reversed_count, reversed_amount, last_payment_at)"
+            + " VALUES (:customerId, :count, :amount, 0, 0, :paymentDate)"
+            + " ON CONFLICT (customer_id) DO UPDATE SET"
+            + " payment_count = customer_payment_summary.payment_count + EXCLUDED.payment_count,"
+            + " total_amount = customer_payment_summary.total_amount + EXCLUDED.total_amount,"
+            + " last_payment_at = GREATEST(customer_payment_summary.last_payment_at, EXCLUDED.last_payment_at)", nativeQuery = true)
+    int recordPayments(@Param("customerId") Long customerId, @Param("count") long count, @Param("amount") BigDecimal amount,
+                       @Param("paymentDate") LocalDateTime paymentDate);
+
+    @Modifying
+    @Query(value = "INSERT INTO customer_payment_summary (customer_id, payment_count, total_amount, reversed_count, reversed_amount, last_payment_at)"
+            + " SELECT p.customer_id, 0, 0, 1, :amount, NULL FROM payments p WHERE p.id = :paymentId AND p.payment_date = :paymentDate"
+            + " ON CONFLICT (customer_id) DO UPDATE SET"
+            + " reversed_count = customer_payment_summary.reversed_count + 1,"
+            + " reversed_amount = customer_payment_summary.reversed_amount + EXCLUDED.reversed_amount", nativeQuery = true)
+    int recordReversal(@Param("paymentId") Long paymentId, @Param("paymentDate") LocalDateTime paymentDate,
+                       @Param("amount") BigDecimal amount);
+
+    /**
+     * Recomputes the customer's summary from the payments table. Used when an increment cannot be derived exactly,
+     * e.g. when another transaction settled some of the same payments first.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO customer_payment_summary (customer_id, payment_count, total_amount, reversed_count, reversed_amount, last_payment_at)"
+            + " SELECT :customerId, count(*), coalesce(sum(p.amount), 0),"
+            + " count(*) FILTER (WHERE p.status = 'REVERSED'), coalesce(sum(p.amount) FILTER (WHERE p.status = 'REVERSED'), 0),"
+            + " max(p.payment_date)"
+            + " FROM payments p WHERE p.customer_id = :customerId AND p.status IN ('SUCCEEDED', 'REVERSED')"
+            + " ON CONFLICT (customer_id) DO UPDATE SET"
+            + " payment_count = EXCLUDED.payment_count, total_amount = EXCLUDED.total_amount,"
+            + " reversed_count = EXCLUDED.reversed_count, reversed_amount = EXCLUDED.reversed_amount,"
+            + " last_payment_at = EXCLUDED.last_payment_at", nativeQuery = true)
+    int rebuild(@Param("customerId") Long customerId);
+}
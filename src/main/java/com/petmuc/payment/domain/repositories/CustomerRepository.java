@@ -2,6 +2,8 @@ package com.petmuc.payment.domain.repositories;
 
 import com.petmuc.payment.domain.models.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +11,13 @@ import java.util.Optional;
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findCustomerByEmail(String email);
+
+    /**
+     * Inserts the customer in a single round trip, relying on the UNIQUE constraint on email instead of a prior lookup.
+     *
+     * @return the generated id, or empty if a customer with this email already exists
+     */
+    @Query(value = "INSERT INTO customers (id, name, email) VALUES (nextval('customers_id_seq'), :name, :email)"
+            + " ON CONFLICT (email) DO NOTHING RETURNING id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("name") String name, @Param("email") String email);
 }
@@ -0,0 +1,43 @@
+package com.petmuc.payment.domain.repositories;
+
+import com.petmuc.payment.domain.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Claims the key for the calling request in a single round trip; the primary key decides the winner
+     * when several instances receive the same key at once.
+     *
+     * @return 1 if the key was claimed, 0 if it already exists
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, request_hash, status, created_at)"
+            + " VALUES (:key, :requestHash, 'IN_PROGRESS', now()) ON CONFLICT (idempotency_key) DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("requestHash") String requestHash);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.paymentId = :paymentId where r.idempotencyKey = :key")
+    int bindPayment(@Param("key") String key, @Param("paymentId") Long paymentId);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = com.petmuc.payment.domain.models.IdempotencyStatus.COMPLETED,"
+            + " r.responseBody = :responseBody where r.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = :key"
+            + " and r.status = com.petmuc.payment.domain.models.IdempotencyStatus.IN_PROGRESS")
+    int release(@Param("key") String key);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,59 @@
+package com.petmuc.payment.domain.repositories;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dumps payments with {@code COPY ... TO STDOUT}: the server formats the CSV and the driver hands each row to the
+ * output stream as it arrives, so no entity or result set row is materialized on the way.
+ */
+@Repository
+public class PaymentExportRepository {
+
+    private static final String SELECT_PAYMENTS = "SELECT id, customer_id, amount, method, status, reference, payment_date FROM payments";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentExportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Copies the payments made on or after {@code from} and before {@code to}; either bound may be null. Rows come
+     * out partition by partition, unsorted, since ordering a full dump would force the server to sort it first.
+     */
+    public long copyPayments(LocalDate from, LocalDate to, OutputStream out) {
+        String copy = "COPY (" + selectPayments(from, to) + ") TO STDOUT WITH (FORMAT csv, HEADER)";
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(copy, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * COPY takes no bind parameters, so the bounds are inlined; they are dates, never free text. As literals they
+     * also let the planner prune the partitions outside the range.
+     */
+    static String selectPayments(LocalDate from, LocalDate to) {
+        List<String> conditions = new ArrayList<>(2);
+        if (from != null) {
+            conditions.add("payment_date >= '" + from + "'");
+        }
+        if (to != null) {
+            conditions.add("payment_date < '" + to + "'");
+        }
+        return conditions.isEmpty() ? SELECT_PAYMENTS : SELECT_PAYMENTS + " WHERE " + String.join(" AND ", conditions);
+    }
+}
@@ -0,0 +1,43 @@
+package com.petmuc.payment.domain.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DDL for the monthly partitions of the payments table. Partition names are generated by the caller, never taken
+ * from user input, since identifiers cannot be bound as statement parameters.
+ */
+@Repository
+public class PaymentPartitionRepository {
+
+    private static final String SELECT_PARTITIONS = "SELECT child.relname FROM pg_inherits"
+            + " JOIN pg_class parent ON parent.oid = pg_inherits.inhparent"
+            + " JOIN pg_class child ON child.oid = pg_inherits.inhrelid"
+            + " WHERE parent.relname = 'payments' AND parent.relnamespace = to_regnamespace(current_schema())";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<String> findPartitions() {
+        return jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class);
+    }
+
+    public void createPartition(String name, LocalDate from, LocalDate to) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF payments"
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    /**
+     * Detaches without blocking reads and writes on the other partitions. CONCURRENTLY cannot run inside a
+     * transaction block, so this must be called without a surrounding transaction.
+     */
+    public void detachPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE payments DETACH PARTITION " + name + " CONCURRENTLY");
+    }
+}
@@ -1,12 +1,81 @@
 package com.petmuc.payment.domain.repositories;
 
+import com.petmuc.payment.api.dtos.PaymentView;
 import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    List<Payment> findByCustomerId(Long customerId);
+
+    /**
+     * Selects only the columns of {@link PaymentView} with one join, instead of loading the entity and its customer.
+     */
+    String SELECT_PAYMENT_VIEW = "select new com.petmuc.payment.api.dtos.PaymentView(p.id, p.method, p.amount,"
+            + " c.id, c.name, c.email, p.paymentDate, p.reference, p.status) from Payment p join p.customer c";
+
+    @Query(SELECT_PAYMENT_VIEW + " where p.id = :id")
+    Optional<PaymentView> findViewById(@Param("id") Long id);
+
+    @Query(SELECT_PAYMENT_VIEW + " where c.id = :customerId")
+    List<PaymentView> findViewsByCustomerId(@Param("customerId") Long customerId);
+
+    @Query(SELECT_PAYMENT_VIEW + " where c.id = :customerId order by p.paymentDate desc, p.id desc")
+    List<PaymentView> findLatestByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    /**
+     * Keyset continuation of {@link #findLatestByCustomerId}: rows strictly after the given (paymentDate, id) position,
+     * served from the (customer_id, payment_date DESC, id DESC) index without an OFFSET scan. The position is a
+     * row-value comparison so Postgres uses it as an index bound; the equivalent OR form is only a filter and reads
+     * every newer row first. The casts give Hibernate the tuple's element types.
+     */
+    @Query(SELECT_PAYMENT_VIEW + " where c.id = :customerId"
+            + " and (p.paymentDate, p.id) < (cast(:paymentDate as LocalDateTime), cast(:id as Long))"
+            + " order by p.paymentDate desc, p.id desc")
+    List<PaymentView> findByCustomerIdBefore(@Param("customerId") Long customerId, @Param("paymentDate") LocalDateTime paymentDate,
+                                         @Param("id") Long id, Pageable pageable);
+
+    @Query("select p from Payment p join fetch p.customer where p.id = :id")
+    Optional<Payment> findWithCustomerById(@Param("id") Long id);
+
+    List<Payment> findByStatusAndNextAttemptAtLessThanEqual(PaymentStatus status, LocalDateTime now, Pageable pageable);
+
+    /**
+     * Records a failed recovery attempt of a PENDING payment: either schedules the next one or, with
+     * {@code NEEDS_REVIEW} and no next attempt, parks the payment.
+     */
+    @Modifying
+    @Query("update Payment p set p.status = :status, p.attempts = :attempts, p.nextAttemptAt = :nextAttemptAt"
+            + " where p.id = :id and p.paymentDate = :paymentDate"
+            + " and p.status = com.petmuc.payment.domain.models.PaymentStatus.PENDING")
+    int recordRecoveryAttempt(@Param("id") Long id, @Param("paymentDate") LocalDateTime paymentDate,
+                              @Param("status") PaymentStatus status, @Param("attempts") int attempts,
+                              @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * The payment date is the partition key, so the update only touches the payment's own partition instead of
+     * probing every one of them.
+     */
+    @Modifying
+    @Query("update Payment p set p.status = :to where p.id = :id and p.paymentDate = :paymentDate and p.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("paymentDate") LocalDateTime paymentDate,
+                         @Param("from") PaymentStatus from, @Param("to") PaymentStatus to);
+
+    /**
+     * All payments of a batch share one payment date, which prunes the update to a single partition.
+     */
+    @Modifying
+    @Query("update Payment p set p.status = :to where p.id in :ids and p.paymentDate = :paymentDate and p.status = :from")
+    int transitionStatuses(@Param("ids") Collection<Long> ids, @Param("paymentDate") LocalDateTime paymentDate,
+                           @Param("from") PaymentStatus from, @Param("to") PaymentStatus to);
 }
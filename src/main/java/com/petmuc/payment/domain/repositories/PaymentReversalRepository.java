@@ -0,0 +1,59 @@
+package com.petmuc.payment.domain.repositories;
+
+import com.petmuc.payment.domain.models.PaymentReversal;
+import com.petmuc.payment.domain.models.ReversalStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentReversalRepository extends JpaRepository<PaymentReversal, Long> {
+
+    Optional<PaymentReversal> findByPaymentId(Long paymentId);
+
+    /**
+     * Enqueues the reversal unless one already exists for the payment, so repeated requests are harmless.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO payment_reversals (id, payment_id, payment_date, reference, amount, status, attempts, next_attempt_at, created_at, updated_at)"
+            + " VALUES (nextval('payment_reversals_id_seq'), :paymentId, :paymentDate, :reference, :amount, 'PENDING', 0, now(), now(), now())"
+            + " ON CONFLICT (payment_id) DO NOTHING", nativeQuery = true)
+    int enqueue(@Param("paymentId") Long paymentId, @Param("paymentDate") LocalDateTime paymentDate,
+                @Param("reference") String reference, @Param("amount") BigDecimal amount);
+
+    /**
+     * Leases up to {@code batchSize} due reversals: their next attempt is pushed past the lease and the attempt counted,
+     * so other workers skip them while the gateway is called outside this transaction. SKIP LOCKED lets several
+     * instances claim disjoint batches without waiting on each other; a crashed worker's rows become due again
+     * once the lease expires.
+     */
+    @Query(value = "UPDATE payment_reversals SET attempts = attempts + 1,"
+            + " next_attempt_at = now() + make_interval(secs => :leaseSeconds), updated_at = now()"
+            + " WHERE id IN (SELECT id FROM payment_reversals WHERE status = 'PENDING' AND next_attempt_at <= now()"
+            + " ORDER BY next_attempt_at LIMIT :batchSize FOR UPDATE SKIP LOCKED)"
+            + " RETURNING *", nativeQuery = true)
+    List<PaymentReversal> claimDue(@Param("batchSize") int batchSize, @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Hands a claimed reversal back for a later attempt and gives back the attempt its claim counted, for a call that
+     * never reached the gateway.
+     */
+    @Modifying
+    @Query("update PaymentReversal r set r.attempts = r.attempts - 1, r.nextAttemptAt = :nextAttemptAt,"
+            + " r.lastError = :lastError, r.updatedAt = :updatedAt where r.id = :id")
+    int reschedule(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("lastError") String lastError, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("update PaymentReversal r set r.status = :status, r.nextAttemptAt = :nextAttemptAt, r.lastError = :lastError,"
+            + " r.updatedAt = :updatedAt where r.id = :id")
+    int recordOutcome(@Param("id") Long id, @Param("status") ReversalStatus status, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("lastError") String lastError, @Param("updatedAt") LocalDateTime updatedAt);
+}
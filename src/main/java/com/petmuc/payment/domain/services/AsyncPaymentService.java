@@ -0,0 +1,14 @@
+package com.petmuc.payment.domain.services;
+
+import com.petmuc.payment.api.dtos.PaymentStatusView;
+import com.petmuc.payment.domain.models.Payment;
+
+public interface AsyncPaymentService {
+
+    /**
+     * Records the payment as PENDING and queues the gateway call, returning without waiting for the outcome.
+     */
+    Payment submitPayment(Long customerId, Payment payment);
+
+    PaymentStatusView getPaymentStatus(Long paymentId);
+}
@@ -0,0 +1,11 @@
+package com.petmuc.payment.domain.services;
+
+import com.petmuc.payment.api.dtos.CustomerImportResult;
+import com.petmuc.payment.domain.models.CustomerImportFormat;
+
+import java.io.InputStream;
+
+public interface CustomerImportService {
+
+    CustomerImportResult importCustomers(InputStream upload, CustomerImportFormat format);
+}
@@ -3,6 +3,7 @@ package com.petmuc.payment.domain.services;
 import com.petmuc.payment.domain.models.Customer;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CustomerService {
 
@@ -14,5 +15,7 @@ public interface CustomerService {
 
     List<Customer> getAllCustomers();
 
+    void streamAllCustomers(Consumer<Customer> consumer);
+
     void deleteCustomer(Long customerId);
 }
@@ -0,0 +1,29 @@
+package com.petmuc.payment.domain.services;
+
+import com.petmuc.payment.domain.models.Payment;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    /**
+     * Runs {@code operation} at most once per customer and {@code idempotencyKey}; repeated calls with the same key
+     * return the stored result, and concurrent duplicates wait for the in-flight one.
+     */
+    default Payment execute(Long customerId, String idempotencyKey, Payment request, Supplier<Payment> operation) {
+        return execute(customerId, idempotencyKey, request, operation, payment -> {
+        });
+    }
+
+    /**
+     * Like {@link #execute(Long, String, Payment, Supplier)} for an operation in two steps: {@code record} stores the
+     * payment and {@code settle} calls the gateway for it. Once a payment is recorded the key stays bound to it unless
+     * the gateway declined it, so a retry after an unknown outcome gets that payment back instead of a second charge.
+     */
+    Payment execute(Long customerId, String idempotencyKey, Payment request, Supplier<Payment> record,
+                    Consumer<Payment> settle);
+
+    int purgeExpiredKeys(Duration ttl);
+}
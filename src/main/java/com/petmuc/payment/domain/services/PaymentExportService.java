@@ -0,0 +1,10 @@
+package com.petmuc.payment.domain.services;
+
+import com.petmuc.payment.domain.models.PaymentExport;
+
+import java.time.LocalDate;
+
+public interface PaymentExportService {
+
+    PaymentExport exportPayments(LocalDate from, LocalDate to);
+}
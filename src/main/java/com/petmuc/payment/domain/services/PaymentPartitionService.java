@@ -0,0 +1,8 @@
+package com.petmuc.payment.domain.services;
+
+import java.time.YearMonth;
+
+public interface PaymentPartitionService {
+
+    void maintainPartitions(YearMonth currentMonth);
+}
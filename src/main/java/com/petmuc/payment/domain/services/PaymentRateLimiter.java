@@ -0,0 +1,17 @@
+package com.petmuc.payment.domain.services;
+
+public interface PaymentRateLimiter {
+
+    /**
+     * Takes one payment from the customer's allowance, or throws {@code RateLimitExceededException} with the time
+     * until the next payment would be allowed.
+     */
+    default void acquire(Long customerId) {
+        acquire(customerId, 1);
+    }
+
+    /**
+     * Takes {@code permits} payments from the customer's allowance at once, or none of them.
+     */
+    void acquire(Long customerId, int permits);
+}
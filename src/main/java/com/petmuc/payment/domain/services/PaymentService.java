@@ -1,13 +1,39 @@
 package com.petmuc.payment.domain.services;
 
+import com.petmuc.payment.api.dtos.PaymentBatchItemResult;
+import com.petmuc.payment.api.dtos.PaymentPage;
+import com.petmuc.payment.api.dtos.PaymentView;
+import com.petmuc.payment.domain.models.CustomerPaymentSummary;
 import com.petmuc.payment.domain.models.Payment;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PaymentService {
     Payment makePayment(Long customerId, Payment payment);
 
-    Payment getPaymentById(Long paymentId);
+    /**
+     * The first phase of {@link #makePayment}: records the payment as PENDING without calling the gateway.
+     */
+    Payment recordPayment(Long customerId, Payment payment);
 
-    List<Payment> getPaymentsByCustomerId(Long customerId);
+    /**
+     * The remaining phases of {@link #makePayment} for a payment returned by {@link #recordPayment}.
+     */
+    void settlePayment(Payment payment);
+
+    List<PaymentBatchItemResult> makePayments(Long customerId, List<Payment> payments);
+
+    PaymentView getPaymentById(Long paymentId);
+
+    List<PaymentView> getPaymentsByCustomerId(Long customerId);
+
+    PaymentPage getPaymentsByCustomerId(Long customerId, String cursor, Integer limit);
+
+    CustomerPaymentSummary getPaymentSummary(Long customerId);
+
+    int recoverPendingPayments(int batchSize);
+
+    void reversePayment(Long paymentId, LocalDateTime paymentDate, String reference, BigDecimal amount);
 }
@@ -0,0 +1,16 @@
+package com.petmuc.payment.domain.services;
+
+import com.petmuc.payment.domain.models.PaymentReversal;
+
+public interface ReversalService {
+    PaymentReversal requestReversal(Long paymentId);
+
+    PaymentReversal getReversalByPaymentId(Long paymentId);
+
+    /**
+     * Claims due reversals in batches and sends them to the gateway until none are left or {@code maxBatches} ran.
+     *
+     * @return the number of reversals attempted
+     */
+    int processDueReversals(int maxBatches);
+}
@@ -0,0 +1,113 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.api.dtos.PaymentStatusView;
+import com.petmuc.payment.api.dtos.PaymentView;
+import com.petmuc.payment.config.ExecutorConfig;
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.services.AsyncPaymentService;
+import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.exception.GatewayUnavailableException;
+import com.petmuc.payment.exception.PaymentProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Decouples accepting a payment from the gateway round trip. The payment is committed as PENDING before it is
+ * queued, so the database, not the in-memory queue, is the record of what still has to be settled: a payment
+ * that finds the queue full, or is lost with the instance, is settled later by the recovery sweeper.
+ */
+@Service
+public class AsyncPaymentServiceImpl implements AsyncPaymentService {
+    private static final Logger log = LoggerFactory.getLogger(AsyncPaymentServiceImpl.class);
+
+    private final PaymentService paymentService;
+    private final Executor asyncPaymentExecutor;
+    private final Counter queued;
+    private final Counter deferred;
+
+    public AsyncPaymentServiceImpl(PaymentService paymentService,
+                                   @Qualifier(ExecutorConfig.ASYNC_PAYMENT_EXECUTOR) Executor asyncPaymentExecutor,
+                                   MeterRegistry meterRegistry) {
+        this.paymentService = paymentService;
+        this.asyncPaymentExecutor = asyncPaymentExecutor;
+        this.queued = submissionCounter(meterRegistry, "queued");
+        this.deferred = submissionCounter(meterRegistry, "deferred");
+    }
+
+    /**
+     * The worker settles its own copy of the payment, so the instance returned to the caller keeps the PENDING
+     * status it was accepted with while it is being serialized. When the payment is recorded inside the caller's
+     * transaction, it is only queued once that transaction has committed, so the worker never settles a row it
+     * cannot see yet.
+     */
+    @Override
+    public Payment submitPayment(Long customerId, Payment payment) {
+        Payment pending = paymentService.recordPayment(customerId, payment);
+        Payment settling = copyOf(pending);
+        if (TransactionSynchronizationManager.isActualTransactionActive() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(settling);
+                }
+            });
+        } else {
+            enqueue(settling);
+        }
+        return pending;
+    }
+
+    @Override
+    public PaymentStatusView getPaymentStatus(Long paymentId) {
+        PaymentView payment = paymentService.getPaymentById(paymentId);
+        return new PaymentStatusView(payment.id(), payment.reference(), payment.status());
+    }
+
+    private void enqueue(Payment payment) {
+        try {
+            asyncPaymentExecutor.execute(() -> settle(payment));
+            queued.increment();
+        } catch (RejectedExecutionException e) {
+            deferred.increment();
+            log.warn("Payment {} accepted while the async queue is full, leaving it to the recovery sweeper", payment.getReference());
+        }
+    }
+
+    /**
+     * A decline has already been recorded as FAILED; any other error leaves the payment PENDING for the sweeper.
+     */
+    private void settle(Payment payment) {
+        try {
+            paymentService.settlePayment(payment);
+        } catch (GatewayUnavailableException e) {
+            log.warn("Payment {} is still pending, gateway unavailable: {}", payment.getReference(), e.getMessage());
+        } catch (PaymentProcessingException e) {
+            log.debug("Payment {} declined: {}", payment.getReference(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Payment {} is still pending, gateway call failed: {}", payment.getReference(), e.getMessage());
+        }
+    }
+
+    private static Payment copyOf(Payment payment) {
+        Payment copy = new Payment(payment.getId(), payment.getMethod(), payment.getAmount(), payment.getCustomer(), payment.getReference());
+        copy.setPaymentDate(payment.getPaymentDate());
+        copy.setStatus(payment.getStatus());
+        return copy;
+    }
+
+    private static Counter submissionCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payment.async.submissions")
+                .description("Asynchronously submitted payments, by whether a worker took them or the sweeper will")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,104 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.petmuc.payment.api.dtos.CustomerImportResult;
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.CustomerImportFormat;
+import com.petmuc.payment.domain.repositories.CustomerImportRepository;
+import com.petmuc.payment.domain.services.CustomerImportService;
+import com.petmuc.payment.exception.ValidationException;
+import com.petmuc.payment.utils.MessageUtil;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Bulk customer import. The upload is piped into COPY as it arrives: CSV is passed through unchanged, NDJSON is
+ * parsed one object at a time and re-encoded as CSV. Rows that cannot be imported are reported instead of failing
+ * the import; only a malformed upload rejects it as a whole.
+ */
+@Service
+public class CustomerImportServiceImpl implements CustomerImportService {
+
+    private static final String CSV_HEADER = "name,email\n";
+    // SQLSTATE class 22 (data exception) covers malformed CSV and values COPY cannot parse.
+    private static final String DATA_EXCEPTION_CLASS = "22";
+
+    private final CustomerImportRepository customerImportRepository;
+    private final ObjectReader customerReader;
+    private final MessageUtil messageUtil;
+    private final PaymentProperties.CustomerImport customerImport;
+
+    public CustomerImportServiceImpl(CustomerImportRepository customerImportRepository, ObjectMapper objectMapper,
+                                     MessageUtil messageUtil, PaymentProperties paymentProperties) {
+        this.customerImportRepository = customerImportRepository;
+        this.customerReader = objectMapper.readerFor(Customer.class);
+        this.messageUtil = messageUtil;
+        this.customerImport = paymentProperties.getCustomerImport();
+    }
+
+    @Override
+    @Transactional
+    public CustomerImportResult importCustomers(InputStream upload, CustomerImportFormat format) {
+        CustomerImportRepository.CsvWriter csvWriter = switch (format) {
+            case CSV -> upload::transferTo;
+            case NDJSON -> out -> writeNdjsonAsCsv(upload, out);
+        };
+        try {
+            return customerImportRepository.importCustomers(csvWriter, customerImport.getMaxReportedRejections());
+        } catch (DataAccessException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith(DATA_EXCEPTION_CLASS)) {
+                throw new ValidationException(messageUtil.getInvalidCustomerImportMessage(sqlException.getMessage()));
+            }
+            throw e;
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof JsonProcessingException jsonException) {
+                throw new ValidationException(messageUtil.getInvalidCustomerImportMessage(jsonException.getOriginalMessage()));
+            }
+            throw e;
+        }
+    }
+
+    private void writeNdjsonAsCsv(InputStream upload, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        try (MappingIterator<Customer> customers = customerReader.readValues(upload)) {
+            while (customers.hasNextValue()) {
+                Customer customer = customers.nextValue();
+                writeCsvField(writer, customer.getName());
+                writer.write(',');
+                writeCsvField(writer, customer.getEmail());
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Quotes every present value so commas, quotes and line breaks survive; a missing value is left unquoted,
+     * which COPY reads as NULL.
+     */
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,16 +1,24 @@
 package com.petmuc.payment.domain.services.impl;
 
+import com.petmuc.payment.config.CacheConfig;
+import com.petmuc.payment.config.PaymentProperties;
 import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.repositories.CustomerCursorRepository;
 import com.petmuc.payment.exception.CustomerAlreadyExistsException;
 import com.petmuc.payment.exception.CustomerNotFoundException;
 import com.petmuc.payment.domain.repositories.CustomerRepository;
 import com.petmuc.payment.domain.services.CustomerService;
 import com.petmuc.payment.utils.MessageUtil;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.validation.Valid;
 
@@ -19,22 +27,34 @@ public class CustomerServiceImpl implements CustomerService {
 
     private final MessageUtil messageUtil;
     private final CustomerRepository customerRepository;
+    private final CustomerCursorRepository customerCursorRepository;
+    private final PaymentProperties paymentProperties;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public CustomerServiceImpl(MessageUtil messageUtil, CustomerRepository customerRepository) {
+    public CustomerServiceImpl(MessageUtil messageUtil, CustomerRepository customerRepository,
+                               CustomerCursorRepository customerCursorRepository, PaymentProperties paymentProperties,
+                               PlatformTransactionManager transactionManager) {
         this.messageUtil = messageUtil;
         this.customerRepository = customerRepository;
+        this.customerCursorRepository = customerCursorRepository;
+        this.paymentProperties = paymentProperties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
 
     @Override
     @Transactional
     public Customer createCustomer(@Valid Customer customer) {
-        checkCustomerExists(customer);
-        return customerRepository.save(customer);
+        Long id = customerRepository.insertIfAbsent(customer.getName(), customer.getEmail())
+                .orElseThrow(() -> new CustomerAlreadyExistsException(messageUtil.getCustomerAlreadyExistsMessage(customer.getEmail())));
+        customer.setId(id);
+        return customer;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#customerId")
     public Customer updateCustomer(Long customerId, @Valid Customer customer) {
         Customer existing = customerRepository.findById(customerId)
                 .orElseThrow(() -> new CustomerNotFoundException(messageUtil.getCustomerNotFoundMessage(customerId)));
@@ -45,6 +65,7 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#customerId")
     public void deleteCustomer(Long customerId) {
         if (!customerRepository.existsById(customerId)) {
             throw new CustomerNotFoundException(messageUtil.getCustomerNotFoundMessage(customerId));
@@ -53,21 +74,38 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#customerId")
     public Customer getCustomerById(Long customerId) {
         return customerRepository.findById(customerId)
                 .orElseThrow(() -> new CustomerNotFoundException(messageUtil.getCustomerNotFoundMessage(customerId)));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Customer> getAllCustomers() {
         return customerRepository.findAll();
     }
 
-    private void checkCustomerExists(Customer customer) {
-        boolean exists = customerRepository.findCustomerByEmail(customer.getEmail()).isPresent();
-        if (exists) {
-            throw new CustomerAlreadyExistsException(messageUtil.getCustomerAlreadyExistsMessage(customer.getEmail()));
-        }
+    /**
+     * Reads one page per short read-only transaction, so a slow client only delays the next page instead of keeping
+     * a connection and snapshot open for the whole download. Customers added or removed while streaming may or may
+     * not appear, but none is sent twice.
+     */
+    @Override
+    public void streamAllCustomers(Consumer<Customer> consumer) {
+        final int pageSize = paymentProperties.getExport().getFetchSize();
+        long afterId = 0;
+        List<Customer> page;
+        do {
+            final long from = afterId;
+            page = readOnlyTransaction.execute(status -> customerCursorRepository.findPageAfter(from, pageSize));
+            if (page == null || page.isEmpty()) {
+                return;
+            }
+            page.forEach(consumer);
+            afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == pageSize);
     }
 
 
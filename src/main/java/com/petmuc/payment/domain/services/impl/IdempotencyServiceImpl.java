@@ -0,0 +1,266 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.models.IdempotencyRecord;
+import com.petmuc.payment.domain.models.IdempotencyStatus;
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import com.petmuc.payment.domain.repositories.IdempotencyRecordRepository;
+import com.petmuc.payment.domain.repositories.PaymentRepository;
+import com.petmuc.payment.domain.services.IdempotencyService;
+import com.petmuc.payment.exception.GatewayUnavailableException;
+import com.petmuc.payment.exception.IdempotencyConflictException;
+import com.petmuc.payment.exception.PaymentProcessingException;
+import com.petmuc.payment.exception.ServiceException;
+import com.petmuc.payment.exception.ValidationException;
+import com.petmuc.payment.utils.MessageUtil;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier idempotency store. Completed responses are kept in a bounded, TTL-evicting in-memory cache, so replays
+ * on this instance touch neither the gateway nor the database. Behind it, the {@code idempotency_keys} table makes
+ * the key durable and shared across instances. Duplicates arriving while the first request is still running on this
+ * instance wait on its future instead of running again.
+ * <p>
+ * Only successful outcomes are stored. If the payment could not be recorded, or the gateway declined it, the claim
+ * is released, so the client can retry the same key once the error is resolved. Any other failure after the payment
+ * was recorded leaves its outcome unknown: the key stays bound to the PENDING payment, retries are answered with a
+ * conflict until the payment settles, and then get the outcome the first request would have had.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final MessageUtil messageUtil;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration inFlightWait;
+    private final Cache<String, StoredPayment> completed;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(MessageUtil messageUtil, IdempotencyRecordRepository idempotencyRecordRepository,
+                                  PaymentRepository paymentRepository, PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper, PaymentProperties paymentProperties) {
+        final PaymentProperties.Idempotency idempotency = paymentProperties.getIdempotency();
+        this.messageUtil = messageUtil;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.paymentRepository = paymentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.inFlightWait = idempotency.getInFlightWait();
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(idempotency.getMaximumSize())
+                .expireAfterWrite(idempotency.getTimeToLive())
+                .build();
+    }
+
+    @Override
+    public Payment execute(Long customerId, String idempotencyKey, Payment request, Supplier<Payment> record,
+                           Consumer<Payment> settle) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(messageUtil.getInvalidIdempotencyKeyMessage(MAX_KEY_LENGTH));
+        }
+        final String key = customerId + ":" + idempotencyKey;
+        final String requestHash = fingerprint(customerId, request);
+
+        StoredPayment stored = completed.getIfPresent(key);
+        if (stored != null) {
+            return replay(stored, requestHash, idempotencyKey);
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running, requestHash, idempotencyKey);
+        }
+        try {
+            // The previous owner may have completed between the cache lookup and our registration.
+            stored = completed.getIfPresent(key);
+            Payment result = stored != null ? replay(stored, requestHash, idempotencyKey)
+                    : executeOnce(key, requestHash, idempotencyKey, record, settle);
+            mine.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Override
+    public int purgeExpiredKeys(Duration ttl) {
+        final LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        return transactionTemplate.execute(status -> idempotencyRecordRepository.deleteCreatedBefore(cutoff));
+    }
+
+    private Payment executeOnce(String key, String requestHash, String idempotencyKey, Supplier<Payment> record,
+                                Consumer<Payment> settle) {
+        Integer claimed = transactionTemplate.execute(status -> idempotencyRecordRepository.claim(key, requestHash));
+        if (claimed == null || claimed == 0) {
+            return replayRecord(key, requestHash, idempotencyKey);
+        }
+
+        final Payment result;
+        try {
+            // The key is bound in the transaction that records the payment, so no payment commits without it.
+            result = transactionTemplate.execute(status -> {
+                Payment recorded = record.get();
+                idempotencyRecordRepository.bindPayment(key, recorded.getId());
+                return recorded;
+            });
+        } catch (RuntimeException e) {
+            release(key);
+            throw e;
+        }
+        try {
+            settle.accept(result);
+        } catch (GatewayUnavailableException e) {
+            // Never reached the gateway, but the payment stays PENDING and the sweeper will still send it.
+            throw e;
+        } catch (PaymentProcessingException e) {
+            release(key);
+            throw e;
+        }
+        complete(key, requestHash, result);
+        return result;
+    }
+
+    private void complete(String key, String requestHash, Payment result) {
+        completed.put(key, new StoredPayment(requestHash, result));
+        final String responseBody = serialize(result);
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.complete(key, responseBody));
+    }
+
+    private void release(String key) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.release(key));
+    }
+
+    /**
+     * The key was claimed before, by an earlier request on this or another instance whose result is no longer
+     * (or never was) in our cache.
+     */
+    private Payment replayRecord(String key, String requestHash, String idempotencyKey) {
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key)
+                .orElseThrow(() -> new IdempotencyConflictException(messageUtil.getIdempotencyKeyInProgressMessage(idempotencyKey)));
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new ValidationException(messageUtil.getIdempotencyKeyReusedMessage(idempotencyKey));
+        }
+        if (record.getStatus() != IdempotencyStatus.COMPLETED) {
+            return replayBoundPayment(key, requestHash, idempotencyKey, record.getPaymentId());
+        }
+        StoredPayment stored = new StoredPayment(requestHash, deserialize(record.getResponseBody()));
+        completed.put(key, stored);
+        return stored.payment();
+    }
+
+    /**
+     * The earlier request recorded its payment but did not learn the outcome. Once the payment has settled, by a
+     * later request path or the sweeper, it is answered as if the earlier request had seen it: a successful payment
+     * becomes this key's stored response, and a declined one releases the key and is reported as the decline. A
+     * payment parked for review has no outcome yet and is only reported as a conflict.
+     */
+    private Payment replayBoundPayment(String key, String requestHash, String idempotencyKey, Long paymentId) {
+        Payment payment = paymentId == null ? null
+                : transactionTemplate.execute(status -> paymentRepository.findWithCustomerById(paymentId).orElse(null));
+        if (payment == null || payment.getStatus() == PaymentStatus.PENDING) {
+            throw new IdempotencyConflictException(messageUtil.getIdempotencyKeyInProgressMessage(idempotencyKey));
+        }
+        if (payment.getStatus() == PaymentStatus.NEEDS_REVIEW) {
+            throw new IdempotencyConflictException(messageUtil.getIdempotencyKeyUnderReviewMessage(idempotencyKey));
+        }
+        if (payment.getStatus() == PaymentStatus.FAILED) {
+            release(key);
+            throw new PaymentProcessingException(messageUtil.getPaymentProcessingErrorMessage(
+                    payment.getReference(), messageUtil.getPaymentDeclinedMessage()));
+        }
+        complete(key, requestHash, payment);
+        return payment;
+    }
+
+    private Payment replay(StoredPayment stored, String requestHash, String idempotencyKey) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new ValidationException(messageUtil.getIdempotencyKeyReusedMessage(idempotencyKey));
+        }
+        return stored.payment();
+    }
+
+    private Payment await(InFlight running, String requestHash, String idempotencyKey) {
+        if (!running.requestHash().equals(requestHash)) {
+            throw new ValidationException(messageUtil.getIdempotencyKeyReusedMessage(idempotencyKey));
+        }
+        try {
+            return running.result().get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ServiceException(messageUtil.getDefaultErrorMessage());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(messageUtil.getIdempotencyKeyInProgressMessage(idempotencyKey));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException(messageUtil.getIdempotencyKeyInProgressMessage(idempotencyKey));
+        }
+    }
+
+    private String serialize(Payment payment) {
+        try {
+            return objectMapper.writeValueAsString(payment);
+        } catch (JsonProcessingException e) {
+            throw new ServiceException(messageUtil.getDefaultErrorMessage());
+        }
+    }
+
+    private Payment deserialize(String responseBody) {
+        try {
+            return objectMapper.readValue(responseBody, Payment.class);
+        } catch (JsonProcessingException e) {
+            throw new ServiceException(messageUtil.getDefaultErrorMessage());
+        }
+    }
+
+    /**
+     * Identifies what the client asked for, so a key reused for a different payment is rejected instead of replayed.
+     */
+    static String fingerprint(Long customerId, Payment request) {
+        final String canonical = customerId + "|" + request.getMethod() + "|"
+                + (request.getAmount() == null ? null : request.getAmount().stripTrailingZeros().toPlainString());
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredPayment(String requestHash, Payment payment) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<Payment> result) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.domain.models.PaymentExport;
+import com.petmuc.payment.domain.repositories.PaymentExportRepository;
+import com.petmuc.payment.domain.services.PaymentExportService;
+import com.petmuc.payment.exception.ValidationException;
+import com.petmuc.payment.utils.MessageUtil;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+/**
+ * Validates the requested range up front and defers the dump to the returned {@link PaymentExport}, which runs it
+ * in a read-only transaction so it is served by a replica when one is configured.
+ */
+@Service
+public class PaymentExportServiceImpl implements PaymentExportService {
+
+    private final PaymentExportRepository paymentExportRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MessageUtil messageUtil;
+
+    public PaymentExportServiceImpl(PaymentExportRepository paymentExportRepository,
+                                    PlatformTransactionManager transactionManager, MessageUtil messageUtil) {
+        this.paymentExportRepository = paymentExportRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.messageUtil = messageUtil;
+    }
+
+    @Override
+    public PaymentExport exportPayments(LocalDate from, LocalDate to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ValidationException(messageUtil.getInvalidExportRangeMessage(from, to));
+        }
+        return out -> {
+            try {
+                Long exported = readOnlyTransaction.execute(status -> paymentExportRepository.copyPayments(from, to, out));
+                return exported == null ? 0 : exported;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+}
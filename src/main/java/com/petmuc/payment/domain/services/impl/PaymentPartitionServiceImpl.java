@@ -0,0 +1,82 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.repositories.PaymentPartitionRepository;
+import com.petmuc.payment.domain.services.PaymentPartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps one partition per calendar month: the current month and the next {@code premakeMonths} always exist,
+ * so inserts never hit a missing range, and months older than {@code retentionMonths} are detached. Detached
+ * partitions are left in place as plain tables for archiving or dropping; their payments no longer appear in
+ * any query, including the summary rebuild.
+ */
+@Service
+public class PaymentPartitionServiceImpl implements PaymentPartitionService {
+    private static final Logger log = LoggerFactory.getLogger(PaymentPartitionServiceImpl.class);
+
+    private static final String PARTITION_PREFIX = "payments_p";
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final PaymentPartitionRepository paymentPartitionRepository;
+    private final PaymentProperties.Partitioning partitioning;
+
+    public PaymentPartitionServiceImpl(PaymentPartitionRepository paymentPartitionRepository, PaymentProperties paymentProperties) {
+        this.paymentPartitionRepository = paymentPartitionRepository;
+        this.partitioning = paymentProperties.getPartitioning();
+    }
+
+    @Override
+    public void maintainPartitions(YearMonth currentMonth) {
+        List<String> partitions = paymentPartitionRepository.findPartitions();
+        Set<String> existing = new HashSet<>(partitions);
+
+        for (int offset = 0; offset <= partitioning.getPremakeMonths(); offset++) {
+            YearMonth month = currentMonth.plusMonths(offset);
+            String name = partitionName(month);
+            if (!existing.contains(name)) {
+                paymentPartitionRepository.createPartition(name, month.atDay(1), month.plusMonths(1).atDay(1));
+                log.info("Created payments partition {}", name);
+            }
+        }
+
+        if (partitioning.getRetentionMonths() <= 0) {
+            return;
+        }
+        YearMonth oldestRetained = currentMonth.minusMonths(partitioning.getRetentionMonths());
+        for (String name : partitions) {
+            YearMonth month = partitionMonth(name);
+            if (month != null && month.isBefore(oldestRetained)) {
+                paymentPartitionRepository.detachPartition(name);
+                log.info("Detached payments partition {}", name);
+            }
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + PARTITION_MONTH.format(month);
+    }
+
+    /**
+     * Returns the month of a partition created by this service, or {@code null} for any other partition.
+     */
+    static YearMonth partitionMonth(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_MONTH);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.services.PaymentRateLimiter;
+import com.petmuc.payment.exception.RateLimitExceededException;
+import com.petmuc.payment.utils.MessageUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-customer token bucket, kept as the generic cell rate algorithm: each customer's state is a single
+ * theoretical arrival time, the instant their allowance would be full again, held in an {@link AtomicLong} and
+ * advanced by compare-and-set, so concurrent payments for one customer never take a lock. A payment is allowed
+ * while that time is at most {@code burst - 1} intervals ahead of now.
+ * <p>
+ * A batch takes one payment per item. It may exceed the burst only when the allowance is full, and then leaves the
+ * customer in debt until the extra payments have been earned back.
+ * <p>
+ * Buckets live in a size-bounded cache and are dropped once their allowance has been full again for longer than it
+ * takes to refill, when they would be indistinguishable from a new one. A bucket evicted early for size only resets
+ * that customer to a full allowance. Limits are tracked per instance.
+ */
+@Service
+public class PaymentRateLimiterImpl implements PaymentRateLimiter {
+
+    private final boolean enabled;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Cache<Long, AtomicLong> buckets;
+    private final Ticker ticker;
+    private final MessageUtil messageUtil;
+    private final Counter rejections;
+
+    @Autowired
+    public PaymentRateLimiterImpl(PaymentProperties paymentProperties, MessageUtil messageUtil, MeterRegistry meterRegistry) {
+        this(paymentProperties, messageUtil, meterRegistry, Ticker.systemTicker());
+    }
+
+    PaymentRateLimiterImpl(PaymentProperties paymentProperties, MessageUtil messageUtil, MeterRegistry meterRegistry,
+                           Ticker ticker) {
+        PaymentProperties.RateLimit rateLimit = paymentProperties.getRateLimit();
+        this.enabled = rateLimit.isEnabled();
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rateLimit.getPaymentsPerSecond());
+        this.toleranceNanos = intervalNanos * (rateLimit.getBurst() - 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimit.getMaximumCustomers())
+                .expireAfter(new UntilRefilled(toleranceNanos + intervalNanos))
+                .ticker(ticker)
+                .build();
+        this.ticker = ticker;
+        this.messageUtil = messageUtil;
+        this.rejections = Counter.builder("payment.rate_limit.rejections")
+                .description("Payments rejected because the customer exceeded their rate limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void acquire(Long customerId, int permits) {
+        if (!enabled) {
+            return;
+        }
+        final long costNanos = intervalNanos * permits;
+        AtomicLong arrival = buckets.get(customerId, id -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = ticker.read();
+            long current = arrival.get();
+            long start = Math.max(current, now);
+            long ahead = start - now;
+            // Waiting until the allowance is full always admits the request, however many permits it takes.
+            long wait = Math.min(ahead, ahead + costNanos - intervalNanos - toleranceNanos);
+            if (wait > 0) {
+                rejections.increment();
+                throw new RateLimitExceededException(messageUtil.getRateLimitExceededMessage(customerId), Duration.ofNanos(wait));
+            }
+            if (arrival.compareAndSet(current, start + costNanos)) {
+                if (permits > 1) {
+                    // Re-inserting recomputes the expiry, so the debt of a large batch is not forgotten while idle.
+                    buckets.put(customerId, arrival);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Keeps a bucket until its theoretical arrival time has passed, i.e. the allowance is full again, plus
+     * {@code idleNanos}.
+     */
+    private static final class UntilRefilled implements Expiry<Long, AtomicLong> {
+
+        private final long idleNanos;
+
+        private UntilRefilled(long idleNanos) {
+            this.idleNanos = idleNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Long customerId, AtomicLong arrival, long currentTime) {
+            return Math.max(arrival.get(), currentTime) - currentTime + idleNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long customerId, AtomicLong arrival, long currentTime, long currentDuration) {
+            return expireAfterCreate(customerId, arrival, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long customerId, AtomicLong arrival, long currentTime, long currentDuration) {
+            return expireAfterCreate(customerId, arrival, currentTime);
+        }
+    }
+}
@@ -1,74 +1,349 @@
 package com.petmuc.payment.domain.services.impl;
 
-import com.petmuc.payment.adapter.clients.RestClient;
+import com.petmuc.payment.adapter.clients.PaymentGateway;
 import com.petmuc.payment.api.dtos.*;
+import com.petmuc.payment.config.PaymentProperties;
 import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.CustomerPaymentSummary;
 import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import com.petmuc.payment.domain.repositories.CustomerPaymentSummaryRepository;
 import com.petmuc.payment.domain.repositories.PaymentRepository;
 import com.petmuc.payment.domain.services.CustomerService;
 import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.exception.GatewayUnavailableException;
 import com.petmuc.payment.exception.PaymentNotFoundException;
+import com.petmuc.payment.exception.PaymentProcessingException;
 import com.petmuc.payment.exception.ProcessType;
+import com.petmuc.payment.exception.ServiceException;
+import com.petmuc.payment.exception.ValidationException;
+import com.petmuc.payment.utils.Backoff;
 import com.petmuc.payment.utils.MessageUtil;
+import com.petmuc.payment.utils.PaymentCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.validation.Valid;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Payments are processed in three phases so that no database transaction (and no pooled connection)
+ * is held while the gateway is called: the payment is recorded as PENDING in a short transaction,
+ * the gateway is called with no transaction open, and the outcome is written in a second short transaction.
+ * Payments whose outcome never got written stay PENDING and are picked up by {@link #recoverPendingPayments}.
+ */
 @Service
 public class PaymentServiceImpl implements PaymentService {
+    private static final Logger log = LoggerFactory.getLogger(PaymentServiceImpl.class);
+
     private final MessageUtil messageUtil;
-    private final RestClient restClient;
+    private final PaymentGateway paymentGateway;
     private final CustomerService customerService;
     private final PaymentRepository paymentRepository;
+    private final CustomerPaymentSummaryRepository summaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentProperties paymentProperties;
 
-    public PaymentServiceImpl(MessageUtil messageUtil, RestClient restClient, CustomerService customerService, PaymentRepository paymentRepository) {
+    public PaymentServiceImpl(MessageUtil messageUtil, PaymentGateway paymentGateway, CustomerService customerService,
+                              PaymentRepository paymentRepository, CustomerPaymentSummaryRepository summaryRepository,
+                              PlatformTransactionManager transactionManager, PaymentProperties paymentProperties) {
         this.messageUtil = messageUtil;
-        this.restClient = restClient;
+        this.paymentGateway = paymentGateway;
         this.customerService = customerService;
         this.paymentRepository = paymentRepository;
-
+        this.summaryRepository = summaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.paymentProperties = paymentProperties;
     }
 
     @Override
-    @Transactional
     public Payment makePayment(Long customerId, @Valid Payment payment) {
-        final String reference = UUID.randomUUID().toString();
+        Payment pending = recordPayment(customerId, payment);
+        settlePayment(pending);
+        return pending;
+    }
+
+    @Override
+    public Payment recordPayment(Long customerId, @Valid Payment payment) {
         Customer customer = customerService.getCustomerById(customerId);
-        payment.setCustomer(customer);
-        payment.setReference(reference);
+        return recordPendingPayment(customer, payment);
+    }
 
-        processPayment(reference,customerId, payment.getAmount());
+    /**
+     * Same three phases as {@link #makePayment}, but the customer is loaded once, all rows are inserted
+     * in one JDBC-batched transaction and the outcomes are written with one UPDATE per final status.
+     */
+    @Override
+    public List<PaymentBatchItemResult> makePayments(Long customerId, List<Payment> payments) {
+        final int maxItems = paymentProperties.getBatch().getMaxItems();
+        if (payments == null || payments.isEmpty() || payments.size() > maxItems) {
+            throw new ValidationException(messageUtil.getInvalidBatchSizeMessage(maxItems));
+        }
+        Customer customer = customerService.getCustomerById(customerId);
+        List<Payment> pending = recordPendingPayments(customer, payments);
 
-        return paymentRepository.save(payment);
+        List<PaymentBatchItemResult> results = new ArrayList<>(pending.size());
+        Map<PaymentStatus, List<Long>> idsByOutcome = new EnumMap<>(PaymentStatus.class);
+        BigDecimal succeededAmount = BigDecimal.ZERO;
+        for (int index = 0; index < pending.size(); index++) {
+            Payment payment = pending.get(index);
+            String message = null;
+            PaymentStatus outcome;
+            try {
+                processPayment(payment.getReference(), customerId, payment.getAmount());
+                outcome = PaymentStatus.SUCCEEDED;
+            } catch (GatewayUnavailableException e) {
+                outcome = PaymentStatus.PENDING;
+                message = e.getMessage();
+            } catch (PaymentProcessingException e) {
+                outcome = PaymentStatus.FAILED;
+                message = e.getMessage();
+            } catch (RuntimeException e) {
+                outcome = PaymentStatus.PENDING;
+                message = e.getMessage();
+            }
+            if (outcome != PaymentStatus.PENDING) {
+                idsByOutcome.computeIfAbsent(outcome, status -> new ArrayList<>()).add(payment.getId());
+            }
+            if (outcome == PaymentStatus.SUCCEEDED) {
+                succeededAmount = succeededAmount.add(payment.getAmount());
+            }
+            payment.setStatus(outcome);
+            results.add(new PaymentBatchItemResult(index, payment.getId(), payment.getReference(), outcome, message));
+        }
 
+        final BigDecimal settledAmount = succeededAmount;
+        final LocalDateTime paymentDate = pending.get(0).getPaymentDate();
+        transactionTemplate.executeWithoutResult(status -> idsByOutcome.forEach((outcome, ids) -> {
+            int transitioned = paymentRepository.transitionStatuses(ids, paymentDate, PaymentStatus.PENDING, outcome);
+            if (outcome != PaymentStatus.SUCCEEDED) {
+                return;
+            }
+            if (transitioned == ids.size()) {
+                summaryRepository.recordPayments(customerId, ids.size(), settledAmount, paymentDate);
+            } else {
+                // Some rows were settled elsewhere (e.g. by the pending sweeper), so the increment is unknown.
+                summaryRepository.rebuild(customerId);
+            }
+        }));
+        return results;
     }
 
     @Override
-    public Payment getPaymentById(Long paymentId) {
-        return paymentRepository.findById(paymentId)
+    @Transactional(readOnly = true)
+    public PaymentView getPaymentById(Long paymentId) {
+        return paymentRepository.findViewById(paymentId)
                 .orElseThrow(() -> new PaymentNotFoundException(messageUtil.getPaymentNotFoundMessage(paymentId)));
     }
 
     @Override
-    public List<Payment> getPaymentsByCustomerId(Long customerId) {
-        return paymentRepository.findByCustomerId(customerId);
+    @Transactional(readOnly = true)
+    public List<PaymentView> getPaymentsByCustomerId(Long customerId) {
+        return paymentRepository.findViewsByCustomerId(customerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaymentPage getPaymentsByCustomerId(Long customerId, String cursor, Integer limit) {
+        final PaymentProperties.Paging paging = paymentProperties.getPaging();
+        final int pageSize = limit != null ? limit : paging.getDefaultPageSize();
+        if (pageSize < 1 || pageSize > paging.getMaxPageSize()) {
+            throw new ValidationException(messageUtil.getInvalidPageSizeMessage(paging.getMaxPageSize()));
+        }
+
+        // One extra row tells us whether there is a next page without a count query.
+        final PageRequest window = PageRequest.ofSize(pageSize + 1);
+        List<PaymentView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = paymentRepository.findLatestByCustomerId(customerId, window);
+        } else {
+            PaymentCursor position = decodeCursor(cursor);
+            rows = paymentRepository.findByCustomerIdBefore(customerId, position.paymentDate(), position.id(), window);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new PaymentPage(rows, null);
+        }
+        List<PaymentView> items = rows.subList(0, pageSize);
+        PaymentView last = items.get(pageSize - 1);
+        return new PaymentPage(items, new PaymentCursor(last.paymentDate(), last.id()).encode());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerPaymentSummary getPaymentSummary(Long customerId) {
+        return summaryRepository.findById(customerId).orElseGet(() -> {
+            customerService.getCustomerById(customerId);
+            return CustomerPaymentSummary.empty(customerId);
+        });
+    }
+
+    /**
+     * Payments are picked in order of their next attempt, which starts {@code payment.recovery.stale-after} after
+     * the payment was recorded and backs off exponentially with every attempt that leaves the outcome unknown, so a
+     * payment the gateway keeps failing does not hold back newer ones. After {@code payment.recovery.max-attempts}
+     * the payment is parked as NEEDS_REVIEW.
+     */
+    @Override
+    public int recoverPendingPayments(int batchSize) {
+        List<Payment> duePayments = paymentRepository.findByStatusAndNextAttemptAtLessThanEqual(
+                PaymentStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize, Sort.by("nextAttemptAt")));
+
+        int settled = 0;
+        for (Payment payment : duePayments) {
+            try {
+                settlePayment(payment);
+                settled++;
+            } catch (GatewayUnavailableException e) {
+                log.warn("Pending payment recovery paused, gateway unavailable: {}", e.getMessage());
+                break;
+            } catch (PaymentProcessingException e) {
+                settled++;
+            } catch (RuntimeException e) {
+                recordFailedRecovery(payment, e);
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * Sends the reversal to the gateway and marks the payment REVERSED. A declined reversal throws
+     * {@code ReversalProcessingException}, a call that never reached the gateway {@link GatewayUnavailableException},
+     * and both leave the payment untouched.
+     */
+    @Override
+    public void reversePayment(Long paymentId, LocalDateTime paymentDate, String reference, BigDecimal amount) {
+        processPaymentReversal(reference, amount);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (paymentRepository.transitionStatus(paymentId, paymentDate, PaymentStatus.SUCCEEDED, PaymentStatus.REVERSED) == 1) {
+                summaryRepository.recordReversal(paymentId, paymentDate, amount);
+            }
+        });
+    }
+
+    private void recordFailedRecovery(Payment payment, RuntimeException e) {
+        final PaymentProperties.Recovery recovery = paymentProperties.getRecovery();
+        final int attempts = payment.getAttempts() + 1;
+        PaymentStatus status = PaymentStatus.PENDING;
+        LocalDateTime nextAttemptAt = null;
+        if (attempts >= recovery.getMaxAttempts()) {
+            status = PaymentStatus.NEEDS_REVIEW;
+            log.error("Payment {} parked for review after {} recovery attempts: {}", payment.getReference(), attempts, e.getMessage());
+        } else {
+            Duration delay = Backoff.exponentialWithJitter(attempts, recovery.getInitialBackoff(), recovery.getMaxBackoff());
+            nextAttemptAt = LocalDateTime.now().plus(delay);
+            log.warn("Payment {} is still pending after recovery attempt {}, retrying in {}: {}",
+                    payment.getReference(), attempts, delay, e.getMessage());
+        }
+        final PaymentStatus outcome = status;
+        final LocalDateTime next = nextAttemptAt;
+        transactionTemplate.executeWithoutResult(tx -> paymentRepository.recordRecoveryAttempt(
+                payment.getId(), payment.getPaymentDate(), outcome, attempts, next));
+        payment.setStatus(outcome);
+        payment.setAttempts(attempts);
+        payment.setNextAttemptAt(next);
+    }
+
+    private PaymentCursor decodeCursor(String cursor) {
+        try {
+            return PaymentCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(messageUtil.getInvalidCursorMessage(cursor));
+        }
+    }
+
+    private Payment recordPendingPayment(Customer customer, Payment payment) {
+        preparePendingPayment(customer, payment, LocalDateTime.now());
+        try {
+            return transactionTemplate.execute(status -> paymentRepository.save(payment));
+        } catch (DataAccessException e) {
+            throw new ServiceException(messageUtil.getDefaultErrorMessage());
+        }
+    }
+
+    private List<Payment> recordPendingPayments(Customer customer, List<Payment> payments) {
+        final LocalDateTime paymentDate = LocalDateTime.now();
+        payments.forEach(payment -> preparePendingPayment(customer, payment, paymentDate));
+        try {
+            return transactionTemplate.execute(status -> paymentRepository.saveAll(payments));
+        } catch (DataAccessException e) {
+            throw new ServiceException(messageUtil.getDefaultErrorMessage());
+        }
+    }
+
+    /**
+     * The payment date is truncated to the microseconds the column keeps, so the in-memory value equals the stored
+     * partition key that settling the payment matches on.
+     */
+    private void preparePendingPayment(Customer customer, Payment payment, LocalDateTime paymentDate) {
+        payment.setId(null);
+        payment.setCustomer(customer);
+        payment.setReference(UUID.randomUUID().toString());
+        payment.setPaymentDate(paymentDate.truncatedTo(ChronoUnit.MICROS));
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setAttempts(0);
+        payment.setNextAttemptAt(payment.getPaymentDate().plus(paymentProperties.getRecovery().getStaleAfter()));
+    }
+
+    /**
+     * Calls the gateway for a PENDING payment and records the outcome. A decline finalizes the payment as FAILED
+     * and is rethrown; any other error (timeouts, I/O) leaves it PENDING because the gateway outcome is unknown, and
+     * so does a {@link GatewayUnavailableException}, since the call never reached the gateway.
+     * The gateway is expected to be idempotent on the payment reference, so a PENDING payment can safely be re-sent.
+     */
+    @Override
+    public void settlePayment(Payment payment) {
+        try {
+            processPayment(payment.getReference(), payment.getCustomer().getId(), payment.getAmount());
+        } catch (GatewayUnavailableException e) {
+            throw e;
+        } catch (PaymentProcessingException e) {
+            finalizePayment(payment, PaymentStatus.FAILED);
+            throw e;
+        }
+        finalizePayment(payment, PaymentStatus.SUCCEEDED);
+    }
+
+    /**
+     * Only the transaction whose update actually moved the payment out of PENDING adds it to the customer's summary,
+     * so a payment settled concurrently by a request and the sweeper is counted once.
+     */
+    private void finalizePayment(Payment payment, PaymentStatus outcome) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int transitioned = paymentRepository.transitionStatus(payment.getId(), payment.getPaymentDate(), PaymentStatus.PENDING, outcome);
+            if (transitioned == 1 && outcome == PaymentStatus.SUCCEEDED) {
+                summaryRepository.recordPayments(payment.getCustomer().getId(), 1, payment.getAmount(), payment.getPaymentDate());
+            }
+        });
+        payment.setStatus(outcome);
     }
 
     private void processPayment(String reference, Long customerId, BigDecimal amount) {
         PaymentRequest request = new PaymentRequest(reference, customerId, amount.doubleValue());
-        ResponseEntity<PaymentResponse> responseEntity = restClient.payment(request);
+        ResponseEntity<PaymentResponse> responseEntity = paymentGateway.payment(request);
         validateResponse(responseEntity, reference, ProcessType.PAYMENT);
     }
 
     private void processPaymentReversal(String reference, BigDecimal amount) {
         ReversalRequest request = new ReversalRequest(reference,amount.doubleValue());
-        ResponseEntity<ReversalResponse> responseEntity = restClient.paymentReversal(request);
+        ResponseEntity<ReversalResponse> responseEntity = paymentGateway.paymentReversal(request);
         validateResponse(responseEntity, reference, ProcessType.REVERSAL);
     }
 
@@ -0,0 +1,176 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.api.dtos.PaymentView;
+import com.petmuc.payment.config.ExecutorConfig;
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.models.PaymentReversal;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import com.petmuc.payment.domain.models.ReversalStatus;
+import com.petmuc.payment.domain.repositories.PaymentReversalRepository;
+import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.domain.services.ReversalService;
+import com.petmuc.payment.exception.GatewayUnavailableException;
+import com.petmuc.payment.exception.ReversalNotFoundException;
+import com.petmuc.payment.exception.ReversalProcessingException;
+import com.petmuc.payment.exception.ValidationException;
+import com.petmuc.payment.utils.Backoff;
+import com.petmuc.payment.utils.MessageUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Reversals go through a Postgres outbox: the request only inserts a row, and the worker claims due rows in batches,
+ * calls the gateway with bounded parallelism and either completes the row, schedules a retry with exponential
+ * backoff, or dead-letters it after {@code payment.reversal.max-attempts}.
+ * <p>
+ * A reversal the gateway declined is dead-lettered right away, since sending it again gets the same answer. A call
+ * the circuit breaker or bulkhead rejected never reached the gateway: the reversal gets its attempt back and the
+ * worker stops claiming until the next run, so an outage does not use up the attempts of every queued reversal.
+ */
+@Service
+public class ReversalServiceImpl implements ReversalService {
+    private static final Logger log = LoggerFactory.getLogger(ReversalServiceImpl.class);
+
+    static final int MAX_ERROR_LENGTH = 500;
+
+    private final MessageUtil messageUtil;
+    private final PaymentService paymentService;
+    private final PaymentReversalRepository paymentReversalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentProperties.Reversal reversal;
+    private final Executor reversalExecutor;
+    private final Counter succeeded;
+    private final Counter retried;
+    private final Counter deadLettered;
+    private final Counter deferred;
+
+    public ReversalServiceImpl(MessageUtil messageUtil, PaymentService paymentService,
+                               PaymentReversalRepository paymentReversalRepository, PlatformTransactionManager transactionManager,
+                               PaymentProperties paymentProperties, @Qualifier(ExecutorConfig.REVERSAL_EXECUTOR) Executor reversalExecutor,
+                               MeterRegistry meterRegistry) {
+        this.messageUtil = messageUtil;
+        this.paymentService = paymentService;
+        this.paymentReversalRepository = paymentReversalRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reversal = paymentProperties.getReversal();
+        this.reversalExecutor = reversalExecutor;
+        this.succeeded = outcomeCounter(meterRegistry, "succeeded");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.deadLettered = outcomeCounter(meterRegistry, "dead");
+        this.deferred = outcomeCounter(meterRegistry, "deferred");
+    }
+
+    @Override
+    public PaymentReversal requestReversal(Long paymentId) {
+        PaymentView payment = paymentService.getPaymentById(paymentId);
+        if (payment.status() != PaymentStatus.SUCCEEDED && payment.status() != PaymentStatus.REVERSED) {
+            throw new ValidationException(messageUtil.getPaymentNotReversibleMessage(paymentId));
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                paymentReversalRepository.enqueue(paymentId, payment.paymentDate(), payment.reference(), payment.amount()));
+        return getReversalByPaymentId(paymentId);
+    }
+
+    @Override
+    public PaymentReversal getReversalByPaymentId(Long paymentId) {
+        return paymentReversalRepository.findByPaymentId(paymentId)
+                .orElseThrow(() -> new ReversalNotFoundException(messageUtil.getReversalNotFoundMessage(paymentId)));
+    }
+
+    @Override
+    public int processDueReversals(int maxBatches) {
+        final int batchSize = reversal.getBatchSize();
+        final long leaseSeconds = reversal.getLease().toSeconds();
+        int attempted = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<PaymentReversal> claimed = transactionTemplate.execute(status ->
+                    paymentReversalRepository.claimDue(batchSize, leaseSeconds));
+            if (claimed == null || claimed.isEmpty()) {
+                break;
+            }
+            List<CompletableFuture<Boolean>> attempts = claimed.stream()
+                    .map(paymentReversal -> CompletableFuture.supplyAsync(() -> attempt(paymentReversal), reversalExecutor))
+                    .toList();
+            CompletableFuture.allOf(attempts.toArray(CompletableFuture[]::new)).join();
+            attempted += claimed.size();
+            if (attempts.stream().anyMatch(reachedGateway -> !reachedGateway.join())) {
+                log.warn("Reversal processing paused, gateway unavailable");
+                break;
+            }
+            if (claimed.size() < batchSize) {
+                break;
+            }
+        }
+        return attempted;
+    }
+
+    /**
+     * Returns whether the call reached the gateway.
+     */
+    private boolean attempt(PaymentReversal paymentReversal) {
+        try {
+            paymentService.reversePayment(paymentReversal.getPaymentId(), paymentReversal.getPaymentDate(),
+                    paymentReversal.getReference(), paymentReversal.getAmount());
+            recordOutcome(paymentReversal, ReversalStatus.SUCCEEDED, null, null);
+            succeeded.increment();
+        } catch (GatewayUnavailableException e) {
+            final String error = truncate(e.getMessage());
+            final LocalDateTime nextAttemptAt = LocalDateTime.now().plus(reversal.getInitialBackoff());
+            transactionTemplate.executeWithoutResult(tx -> paymentReversalRepository.reschedule(
+                    paymentReversal.getId(), nextAttemptAt, error, LocalDateTime.now()));
+            deferred.increment();
+            return false;
+        } catch (ReversalProcessingException e) {
+            final String error = truncate(e.getMessage());
+            log.error("Reversal of payment {} dead-lettered, declined by the gateway: {}", paymentReversal.getReference(), error);
+            recordOutcome(paymentReversal, ReversalStatus.DEAD, null, error);
+            deadLettered.increment();
+        } catch (RuntimeException e) {
+            final String error = truncate(e.getMessage());
+            if (paymentReversal.getAttempts() >= reversal.getMaxAttempts()) {
+                log.error("Reversal of payment {} dead-lettered after {} attempts: {}",
+                        paymentReversal.getReference(), paymentReversal.getAttempts(), error);
+                recordOutcome(paymentReversal, ReversalStatus.DEAD, null, error);
+                deadLettered.increment();
+                return true;
+            }
+            Duration delay = Backoff.exponentialWithJitter(paymentReversal.getAttempts(), reversal.getInitialBackoff(), reversal.getMaxBackoff());
+            log.warn("Reversal of payment {} failed on attempt {}, retrying in {}: {}",
+                    paymentReversal.getReference(), paymentReversal.getAttempts(), delay, error);
+            recordOutcome(paymentReversal, ReversalStatus.PENDING, LocalDateTime.now().plus(delay), error);
+            retried.increment();
+        }
+        return true;
+    }
+
+    private void recordOutcome(PaymentReversal paymentReversal, ReversalStatus status, LocalDateTime nextAttemptAt, String error) {
+        transactionTemplate.executeWithoutResult(tx -> paymentReversalRepository.recordOutcome(
+                paymentReversal.getId(), status, nextAttemptAt, error, LocalDateTime.now()));
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payment.reversals")
+                .description("Reversal attempts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
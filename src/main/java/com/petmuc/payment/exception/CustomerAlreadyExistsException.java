@@ -1,6 +1,6 @@
 package com.petmuc.payment.exception;
 
-public class CustomerAlreadyExistsException extends RuntimeException {
+public class CustomerAlreadyExistsException extends DomainException {
     public CustomerAlreadyExistsException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.petmuc.payment.exception;
 
-public class CustomerNotFoundException extends RuntimeException {
+public class CustomerNotFoundException extends DomainException {
     public CustomerNotFoundException(String message) {
         super(message);
     }
@@ -0,0 +1,24 @@
+package com.petmuc.payment.exception;
+
+/**
+ * Base class for expected domain errors that are mapped to a 4xx response, such as unknown ids or gateway declines.
+ * These are part of normal traffic and never logged with a stack trace, so capturing one can be switched off with
+ * {@code payment.errors.stackless}; filling in the stack is most of the cost of constructing an exception.
+ * Unexpected failures such as {@link ServiceException} always keep theirs.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    private static volatile boolean stackTraceEnabled = true;
+
+    protected DomainException(String message) {
+        super(message, null, true, stackTraceEnabled);
+    }
+
+    public static void setStackTraceEnabled(boolean enabled) {
+        stackTraceEnabled = enabled;
+    }
+
+    public static boolean isStackTraceEnabled() {
+        return stackTraceEnabled;
+    }
+}
@@ -0,0 +1,11 @@
+package com.petmuc.payment.exception;
+
+/**
+ * The gateway call was rejected locally (circuit open, bulkhead or batch queue full) and never reached the gateway,
+ * so the payment was neither charged nor declined and must stay PENDING.
+ */
+public class GatewayUnavailableException extends PaymentProcessingException {
+    public GatewayUnavailableException(String message) {
+        super(message);
+    }
+}
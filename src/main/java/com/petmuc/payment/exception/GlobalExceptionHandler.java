@@ -2,6 +2,7 @@ package com.petmuc.payment.exception;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -16,79 +17,89 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(CustomerNotFoundException.class)
     public ResponseEntity<ProblemDetail> handleCustomerNotFound(CustomerNotFoundException e, HttpServletRequest request) {
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
-        problemDetail.setInstance(URI.create(request.getRequestURI()));
-        problemDetail.setTitle("Customer Not Found");
-        problemDetail.setDetail(e.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(problemDetail);
+        return problem(HttpStatus.NOT_FOUND, "Customer Not Found", e.getMessage(), request);
+    }
+
+    @ExceptionHandler(PaymentNotFoundException.class)
+    public ResponseEntity<ProblemDetail> handlePaymentNotFound(PaymentNotFoundException e, HttpServletRequest request) {
+        return problem(HttpStatus.NOT_FOUND, "Payment Not Found", e.getMessage(), request);
+    }
+
+    @ExceptionHandler(ReversalNotFoundException.class)
+    public ResponseEntity<ProblemDetail> handleReversalNotFound(ReversalNotFoundException e, HttpServletRequest request) {
+        return problem(HttpStatus.NOT_FOUND, "Reversal Not Found", e.getMessage(), request);
     }
 
     @ExceptionHandler(CustomerAlreadyExistsException.class)
     public ResponseEntity<ProblemDetail> handleCustomerExists(CustomerAlreadyExistsException e, HttpServletRequest request) {
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
-        problemDetail.setInstance(URI.create(request.getRequestURI()));
-        problemDetail.setTitle("Customer Conflict");
-        problemDetail.setDetail(e.getMessage());
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(problemDetail);
+        return problem(HttpStatus.CONFLICT, "Customer Conflict", e.getMessage(), request);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotencyConflict(IdempotencyConflictException e, HttpServletRequest request) {
+        return problem(HttpStatus.CONFLICT, "Idempotency Conflict", e.getMessage(), request);
+    }
+
+    /**
+     * Retry-After is rounded up to whole seconds, so a client that honours it is never rejected again for retrying
+     * early.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ProblemDetail> handleRateLimitExceeded(RateLimitExceededException e, HttpServletRequest request) {
+        ResponseEntity<ProblemDetail> response = problem(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", e.getMessage(), request);
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response.getBody());
     }
 
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<ProblemDetail> handleValidationException(ValidationException e, HttpServletRequest request) {
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
-        problemDetail.setInstance(URI.create(request.getRequestURI()));
-        problemDetail.setTitle("Validation Error");
-        problemDetail.setDetail(e.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(problemDetail);
+        return problem(HttpStatus.BAD_REQUEST, "Validation Error", e.getMessage(), request);
+    }
+
+    @ExceptionHandler(GatewayUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleGatewayUnavailable(GatewayUnavailableException e, HttpServletRequest request) {
+        return problem(HttpStatus.SERVICE_UNAVAILABLE, "Payment Gateway Unavailable", e.getMessage(), request);
     }
 
     @ExceptionHandler(PaymentProcessingException.class)
     public ResponseEntity<ProblemDetail> handlePaymentProcessingException(PaymentProcessingException e, HttpServletRequest request) {
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Payment Processing Error");
-        problemDetail.setInstance(URI.create(request.getRequestURI()));
-        problemDetail.setTitle("Payment Processing Error");
-        problemDetail.setDetail(e.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(problemDetail);
+        return problem(HttpStatus.BAD_REQUEST, "Payment Processing Error", e.getMessage(), request);
     }
 
     @ExceptionHandler(ReversalProcessingException.class)
     public ResponseEntity<ProblemDetail> handlePaymentProcessingException(ReversalProcessingException e, HttpServletRequest request) {
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, "Reversal Processing Error");
-        problemDetail.setInstance(URI.create(request.getRequestURI()));
-        problemDetail.setTitle("Reversal Processing Error");
-        problemDetail.setDetail(e.getMessage());
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(problemDetail);
+        return problem(HttpStatus.UNAUTHORIZED, "Reversal Processing Error", e.getMessage(), request);
     }
 
 
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ProblemDetail> handleEntityNotFoundException(EntityNotFoundException e, HttpServletRequest request) {
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, "Entity Not Found");
-        problemDetail.setInstance(URI.create(request.getRequestURI()));
-        problemDetail.setTitle("Entity Not Found");
-        problemDetail.setDetail(e.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(problemDetail);
+        return problem(HttpStatus.NOT_FOUND, "Entity Not Found", e.getMessage(), request);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ProblemDetail> handleValidationException(MethodArgumentNotValidException e, HttpServletRequest request) {
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Validation failed");
-        problemDetail.setInstance(URI.create(request.getRequestURI()));
-        problemDetail.setTitle("Validation Error");
-        problemDetail.setDetail(e.getMessage());
         StringBuilder errors = new StringBuilder();
         e.getBindingResult().getAllErrors().forEach(error -> errors.append(error.getDefaultMessage()).append("; "));
-        problemDetail.setDetail(errors.toString());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(problemDetail);
+        return problem(HttpStatus.BAD_REQUEST, "Validation Error", errors.toString(), request);
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ProblemDetail> handleGeneralException(Exception e, HttpServletRequest request) {
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error");
-        problemDetail.setInstance(URI.create(request.getRequestURI()));
-        problemDetail.setTitle("General Error");
-        problemDetail.setDetail(e.getMessage());
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(problemDetail);
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, "General Error", e.getMessage(), request);
     }
 
-
-}
\ No newline at end of file
+    /**
+     * Builds the response body in one pass; handlers for expected errors run on every 4xx, so they avoid
+     * setting fields twice.
+     */
+    private static ResponseEntity<ProblemDetail> problem(HttpStatus status, String title, String detail, HttpServletRequest request) {
+        ProblemDetail problemDetail = ProblemDetail.forStatus(status);
+        problemDetail.setTitle(title);
+        problemDetail.setDetail(detail);
+        problemDetail.setInstance(URI.create(request.getRequestURI()));
+        return ResponseEntity.status(status).body(problemDetail);
+    }
+}
@@ -0,0 +1,7 @@
+package com.petmuc.payment.exception;
+
+public class IdempotencyConflictException extends DomainException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.petmuc.payment.exception;
 
-public class PaymentNotFoundException extends RuntimeException {
+public class PaymentNotFoundException extends DomainException {
     public PaymentNotFoundException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.petmuc.payment.exception;
 
-public class PaymentProcessingException extends RuntimeException {
+public class PaymentProcessingException extends DomainException {
     public PaymentProcessingException(String message) {
         super(message);
     }
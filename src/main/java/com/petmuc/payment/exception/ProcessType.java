@@ -9,6 +9,12 @@ public enum ProcessType {
             final String detailedErrorMessage = messageUtil.getPaymentProcessingErrorMessage(reference, errorMessage);
             throw new PaymentProcessingException(detailedErrorMessage);
         }
+
+        @Override
+        public void handleUnavailable(String reference, String errorMessage, MessageUtil messageUtil) {
+            final String detailedErrorMessage = messageUtil.getPaymentProcessingErrorMessage(reference, errorMessage);
+            throw new GatewayUnavailableException(detailedErrorMessage);
+        }
     },
     REVERSAL {
         @Override
@@ -16,7 +22,19 @@ public enum ProcessType {
             final String detailedErrorMessage = messageUtil.getReversalProcessingErrorMessage(reference, errorMessage);
             throw new ReversalProcessingException(detailedErrorMessage);
         }
+
+        @Override
+        public void handleUnavailable(String reference, String errorMessage, MessageUtil messageUtil) {
+            final String detailedErrorMessage = messageUtil.getReversalProcessingErrorMessage(reference, errorMessage);
+            throw new GatewayUnavailableException(detailedErrorMessage);
+        }
     };
 
     public abstract void handleError(String reference, String errorMessage, MessageUtil messageUtil);
+
+    /**
+     * Reports a call that never reached the gateway. Unlike {@link #handleError}, this is not a decline: the outcome
+     * of the operation is still open and it can be retried.
+     */
+    public abstract void handleUnavailable(String reference, String errorMessage, MessageUtil messageUtil);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.petmuc.payment.exception;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends DomainException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,7 @@
+package com.petmuc.payment.exception;
+
+public class ReversalNotFoundException extends DomainException {
+    public ReversalNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.petmuc.payment.exception;
 
-public class ReversalProcessingException extends RuntimeException {
+public class ReversalProcessingException extends DomainException {
     public ReversalProcessingException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.petmuc.payment.exception;
 
-public class ValidationException extends RuntimeException {
+public class ValidationException extends DomainException {
     public ValidationException(String message) {
         super(message);
     }
@@ -0,0 +1,24 @@
+package com.petmuc.payment.utils;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry delays for the background workers that re-drive gateway calls.
+ */
+public final class Backoff {
+
+    private Backoff() {
+    }
+
+    /**
+     * Exponential backoff with jitter: the delay doubles per attempt up to {@code max}, and a random half of it is
+     * dropped so calls that failed together do not retry in lockstep.
+     */
+    public static Duration exponentialWithJitter(int attempt, Duration initial, Duration max) {
+        final int exponent = Math.min(Math.max(attempt - 1, 0), 30);
+        final long ceiling = Math.min(max.toMillis(), initial.toMillis() << exponent);
+        final long half = ceiling / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(ceiling - half + 1));
+    }
+}
@@ -0,0 +1,60 @@
+package com.petmuc.payment.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message pattern parsed once into literal segments and argument slots, so formatting is plain string
+ * concatenation. Only {@code %s}, {@code %d} and {@code %%} are compiled; a pattern using any other
+ * conversion falls back to {@link String#format}.
+ */
+final class MessageTemplate {
+
+    private final String pattern;
+    private final String[] segments;
+    private final boolean compiled;
+
+    private MessageTemplate(String pattern, String[] segments, boolean compiled) {
+        this.pattern = pattern;
+        this.segments = segments;
+        this.compiled = compiled;
+    }
+
+    static MessageTemplate compile(String pattern) {
+        List<String> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            char conversion = i + 1 < pattern.length() ? pattern.charAt(i + 1) : 0;
+            if (conversion == '%') {
+                literal.append('%');
+            } else if (conversion == 's' || conversion == 'd') {
+                segments.add(literal.toString());
+                literal.setLength(0);
+            } else {
+                return new MessageTemplate(pattern, null, false);
+            }
+            i++;
+        }
+        segments.add(literal.toString());
+        return new MessageTemplate(pattern, segments.toArray(String[]::new), true);
+    }
+
+    String format(Object... args) {
+        if (!compiled || args.length < segments.length - 1) {
+            return String.format(pattern, args);
+        }
+        if (segments.length == 1) {
+            return segments[0];
+        }
+        StringBuilder message = new StringBuilder(pattern.length() + 32);
+        for (int i = 0; i < segments.length - 1; i++) {
+            message.append(segments[i]).append(args[i]);
+        }
+        return message.append(segments[segments.length - 1]).toString();
+    }
+}
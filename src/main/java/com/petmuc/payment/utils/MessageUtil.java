@@ -3,37 +3,110 @@ package com.petmuc.payment.utils;
 import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Resolves each message key from the {@link MessageSource} once for the default locale and keeps it as a
+ * precompiled {@link MessageTemplate}, so error messages on hot paths skip the lookup and format parsing.
+ */
 @Component
 public class MessageUtil {
     private final MessageSource messageSource;
+    private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
 
     public MessageUtil(MessageSource messageSource) {
         this.messageSource = messageSource;
     }
 
     public String getCustomerNotFoundMessage(Long id) {
-        return String.format(messageSource.getMessage("customer.not_found", null, Locale.getDefault()), id);
+        return format("customer.not_found", id);
     }
 
     public String getCustomerAlreadyExistsMessage(String email) {
-        return String.format(messageSource.getMessage("customer.already_exists", null, Locale.getDefault()), email);
+        return format("customer.already_exists", email);
+    }
+
+    public String getInvalidCustomerImportMessage(String details) {
+        return format("customer.import_invalid", details);
     }
 
     public String getPaymentNotFoundMessage(Long id) {
-        return String.format(messageSource.getMessage("payment.not_found", null, Locale.getDefault()), id);
+        return format("payment.not_found", id);
     }
 
     public String getPaymentProcessingErrorMessage(String reference, String errorDetails) {
-        return String.format(messageSource.getMessage("payment.processing_error",null, Locale.getDefault()), reference, errorDetails);
+        return format("payment.processing_error", reference, errorDetails);
+    }
+
+    public String getPaymentDeclinedMessage() {
+        return format("payment.declined");
     }
 
     public String getReversalProcessingErrorMessage(String reference, String errorDetails) {
-        return String.format(messageSource.getMessage("payment.reversal_processing_error", null, Locale.getDefault()), reference, errorDetails);
+        return format("payment.reversal_processing_error", reference, errorDetails);
+    }
+
+    public String getInvalidBatchSizeMessage(int maxItems) {
+        return format("payment.batch_size_invalid", maxItems);
+    }
+
+    public String getInvalidCursorMessage(String cursor) {
+        return format("payment.cursor_invalid", cursor);
+    }
+
+    public String getInvalidPageSizeMessage(int maxPageSize) {
+        return format("payment.page_size_invalid", maxPageSize);
+    }
+
+    public String getInvalidExportRangeMessage(LocalDate from, LocalDate to) {
+        return format("payment.export_range_invalid", from, to);
+    }
+
+    public String getGatewayUnavailableMessage() {
+        return format("payment.gateway_unavailable");
+    }
+
+    public String getGatewayBusyMessage() {
+        return format("payment.gateway_busy");
+    }
+
+    public String getRateLimitExceededMessage(Long customerId) {
+        return format("payment.rate_limited", customerId);
+    }
+
+    public String getPaymentNotReversibleMessage(Long id) {
+        return format("payment.not_reversible", id);
+    }
+
+    public String getReversalNotFoundMessage(Long paymentId) {
+        return format("reversal.not_found", paymentId);
+    }
+
+    public String getInvalidIdempotencyKeyMessage(int maxLength) {
+        return format("payment.idempotency_key_invalid", maxLength);
+    }
+
+    public String getIdempotencyKeyReusedMessage(String idempotencyKey) {
+        return format("payment.idempotency_key_reused", idempotencyKey);
+    }
+
+    public String getIdempotencyKeyInProgressMessage(String idempotencyKey) {
+        return format("payment.idempotency_key_in_progress", idempotencyKey);
+    }
+
+    public String getIdempotencyKeyUnderReviewMessage(String idempotencyKey) {
+        return format("payment.idempotency_key_under_review", idempotencyKey);
     }
 
     public String getDefaultErrorMessage() {
-        return String.format(messageSource.getMessage("generic_error", null, Locale.getDefault()));
+        return format("generic_error");
+    }
+
+    private String format(String key, Object... args) {
+        return templates.computeIfAbsent(key,
+                code -> MessageTemplate.compile(messageSource.getMessage(code, null, Locale.getDefault()))).format(args);
     }
-}
\ No newline at end of file
+}
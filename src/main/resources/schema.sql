@@ -1,15 +1,81 @@
+DROP TABLE IF EXISTS idempotency_keys;
+DROP TABLE IF EXISTS customer_payment_summary;
+DROP TABLE IF EXISTS payment_reversals;
 DROP TABLE IF EXISTS payments;
 DROP TABLE IF EXISTS customers;
+DROP SEQUENCE IF EXISTS payment_reversals_id_seq;
+DROP SEQUENCE IF EXISTS payments_id_seq;
+DROP SEQUENCE IF EXISTS customers_id_seq;
+
+-- Ids come from sequences that step by the JPA allocationSize, so Hibernate hands out
+-- a block of 50 ids per nextval call and can batch the inserts.
+CREATE SEQUENCE customers_id_seq INCREMENT BY 50;
+CREATE SEQUENCE payments_id_seq INCREMENT BY 50;
+CREATE SEQUENCE payment_reversals_id_seq INCREMENT BY 50;
 
 CREATE TABLE customers (
-                          id SERIAL PRIMARY KEY,
+                          id BIGINT PRIMARY KEY DEFAULT nextval('customers_id_seq'),
                           name VARCHAR(255) NOT NULL,
                           email VARCHAR(255) NOT NULL UNIQUE
 );
+-- Range-partitioned by month on payment_date; PaymentPartitionMaintainer creates the upcoming partitions
+-- and detaches expired ones. There is no DEFAULT partition, since one rules out DETACH ... CONCURRENTLY; with
+-- payment.partitioning.enabled=false the monthly partitions must be created by other means. Unique constraints
+-- on a partitioned table must include the partition key, so the primary key is (id, payment_date) and reference
+-- is no longer enforced unique by the database.
 CREATE TABLE payments (
-                         id SERIAL PRIMARY KEY,
+                         id BIGINT NOT NULL DEFAULT nextval('payments_id_seq'),
                          method VARCHAR(50) NOT NULL,
                          amount DECIMAL(10, 2) NOT NULL,
                          customer_id BIGINT NOT NULL,
+                         payment_date TIMESTAMP NOT NULL DEFAULT now(),
+                         reference VARCHAR(64) NOT NULL,
+                         status VARCHAR(20) NOT NULL,
+                         attempts INT NOT NULL DEFAULT 0,
+                         next_attempt_at TIMESTAMP,
+                         PRIMARY KEY (id, payment_date),
+                         FOREIGN KEY (customer_id) REFERENCES customers(id)
+) PARTITION BY RANGE (payment_date);
+-- attempts and next_attempt_at count and schedule the sweeper's recovery attempts of a PENDING payment.
+CREATE INDEX idx_payments_pending ON payments (next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX idx_payments_customer_history ON payments (customer_id, payment_date DESC, id DESC);
+
+-- Running totals per customer, maintained in the transactions that settle and reverse payments.
+CREATE TABLE customer_payment_summary (
+                         customer_id BIGINT PRIMARY KEY,
+                         payment_count BIGINT NOT NULL DEFAULT 0,
+                         total_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+                         reversed_count BIGINT NOT NULL DEFAULT 0,
+                         reversed_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+                         last_payment_at TIMESTAMP,
                          FOREIGN KEY (customer_id) REFERENCES customers(id)
 );
+
+-- Outbox of requested reversals, drained by the reversal worker. payment_id cannot reference payments,
+-- whose key includes the partition column.
+CREATE TABLE payment_reversals (
+                         id BIGINT PRIMARY KEY DEFAULT nextval('payment_reversals_id_seq'),
+                         payment_id BIGINT NOT NULL UNIQUE,
+                         payment_date TIMESTAMP NOT NULL,
+                         reference VARCHAR(64) NOT NULL,
+                         amount DECIMAL(10, 2) NOT NULL,
+                         status VARCHAR(20) NOT NULL,
+                         attempts INT NOT NULL DEFAULT 0,
+                         next_attempt_at TIMESTAMP NOT NULL DEFAULT now(),
+                         last_error VARCHAR(500),
+                         created_at TIMESTAMP NOT NULL DEFAULT now(),
+                         updated_at TIMESTAMP NOT NULL DEFAULT now()
+);
+CREATE INDEX idx_payment_reversals_due ON payment_reversals (next_attempt_at) WHERE status = 'PENDING';
+
+-- Keys are scoped per customer as '<customer_id>:<Idempotency-Key>'. payment_id binds an IN_PROGRESS key to
+-- the payment it recorded, so a retry after an unknown gateway outcome replays that payment instead of charging again.
+CREATE TABLE idempotency_keys (
+                         idempotency_key VARCHAR(300) PRIMARY KEY,
+                         request_hash CHAR(64) NOT NULL,
+                         status VARCHAR(20) NOT NULL,
+                         payment_id BIGINT,
+                         response_body TEXT,
+                         created_at TIMESTAMP NOT NULL DEFAULT now()
+);
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
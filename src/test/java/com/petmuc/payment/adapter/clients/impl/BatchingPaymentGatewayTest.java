@@ -0,0 +1,234 @@
+package com.petmuc.payment.adapter.clients.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmuc.payment.adapter.clients.RestClient;
+import com.petmuc.payment.api.dtos.PaymentRequest;
+import com.petmuc.payment.api.dtos.PaymentResponse;
+import com.petmuc.payment.config.GatewayProperties;
+import com.petmuc.payment.exception.PaymentProcessingException;
+import com.petmuc.payment.utils.MessageUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Runs the batching gateway against a local HTTP stub of the gateway, through the same Feign contract and codecs
+ * the application uses, so requests and responses really cross the wire.
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchingPaymentGatewayTest {
+
+    private static final int CALLERS = 40;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private volatile boolean dropLastResponse;
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    private HttpServer stub;
+    private ThreadPoolTaskExecutor batchExecutor;
+    private ExecutorService callers;
+    private BatchingPaymentGateway gateway;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/payments/batch", this::handleBatch);
+        stub.createContext("/payments", this::handleSingle);
+        stub.setExecutor(Executors.newFixedThreadPool(4));
+        stub.start();
+
+        GatewayProperties properties = new GatewayProperties();
+        properties.getBatching().setMaxBatchSize(10);
+        properties.getBatching().setMaxDelay(Duration.ofMillis(50));
+        batchExecutor = new ThreadPoolTaskExecutor();
+        batchExecutor.setCorePoolSize(2);
+        batchExecutor.initialize();
+        // callers fall back to direct calls once the gateway stops, so the bulkhead must admit all of them
+        ResilientPaymentGateway resilientGateway = new ResilientPaymentGateway(restClient(), CircuitBreaker.ofDefaults("test"),
+                Bulkhead.of("test", BulkheadConfig.custom().maxConcurrentCalls(CALLERS).build()), messageUtil, new SimpleMeterRegistry(), objectMapper);
+        gateway = new BatchingPaymentGateway(resilientGateway, properties, batchExecutor, messageUtil, new SimpleMeterRegistry());
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (gateway.isRunning()) {
+            gateway.stop();
+        }
+        callers.shutdownNow();
+        batchExecutor.shutdown();
+        stub.stop(0);
+    }
+
+    @Test
+    void shouldSendConcurrentPaymentsAsBatches() throws Exception {
+        gateway.start();
+
+        List<Future<ResponseEntity<PaymentResponse>>> responses = payConcurrently("ref-");
+
+        for (int i = 0; i < CALLERS; i++) {
+            ResponseEntity<PaymentResponse> response = responses.get(i).get();
+            assertEquals(HttpStatus.CREATED, response.getStatusCode());
+            assertEquals("Approved ref-" + i, response.getBody().message());
+        }
+        assertEquals(CALLERS, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.size() < CALLERS, "expected fewer gateway calls than payments, got " + batchSizes);
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+        assertEquals(0, singleCalls.get());
+    }
+
+    @Test
+    void shouldReportADeclineOnlyToItsOwnCaller() throws Exception {
+        Mockito.when(messageUtil.getPaymentProcessingErrorMessage(eq("declined-7"), anyString())).thenReturn("declined-7 declined");
+        gateway.start();
+
+        List<Future<ResponseEntity<PaymentResponse>>> responses = payConcurrently("declined-");
+
+        for (int i = 0; i < CALLERS; i++) {
+            if (i == 7) {
+                ExecutionException failure = assertThrows(ExecutionException.class, responses.get(i)::get);
+                assertInstanceOf(PaymentProcessingException.class, failure.getCause());
+                assertEquals("declined-7 declined", failure.getCause().getMessage());
+            } else {
+                assertEquals(HttpStatus.CREATED, responses.get(i).get().getStatusCode());
+            }
+        }
+    }
+
+    @Test
+    void shouldLeaveEveryOutcomeUnknownWhenResponsesDoNotLineUp() throws Exception {
+        dropLastResponse = true;
+        gateway.start();
+
+        List<Future<ResponseEntity<PaymentResponse>>> responses = payConcurrently("ref-");
+
+        for (Future<ResponseEntity<PaymentResponse>> response : responses) {
+            ExecutionException failure = assertThrows(ExecutionException.class, response::get);
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+        }
+    }
+
+    @Test
+    void shouldCallTheGatewayDirectlyWhileNotRunning() {
+        ResponseEntity<PaymentResponse> response = gateway.payment(new PaymentRequest("ref-1", 1L, 10.0));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, singleCalls.get());
+        assertTrue(batchSizes.isEmpty());
+    }
+
+    @Test
+    void shouldFlushQueuedPaymentsOnStop() throws Exception {
+        gateway.start();
+        List<Future<ResponseEntity<PaymentResponse>>> responses = payConcurrently("ref-");
+        gateway.stop();
+
+        for (Future<ResponseEntity<PaymentResponse>> response : responses) {
+            assertEquals(HttpStatus.CREATED, response.get().getStatusCode());
+        }
+    }
+
+    private List<Future<ResponseEntity<PaymentResponse>>> payConcurrently(String referencePrefix) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(CALLERS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<ResponseEntity<PaymentResponse>>> responses = new ArrayList<>(CALLERS);
+        for (int i = 0; i < CALLERS; i++) {
+            PaymentRequest request = new PaymentRequest(referencePrefix + i, 1L, 10.0);
+            Callable<ResponseEntity<PaymentResponse>> call = () -> {
+                ready.countDown();
+                go.await();
+                return gateway.payment(request);
+            };
+            responses.add(callers.submit(call));
+        }
+        ready.await();
+        go.countDown();
+        return responses;
+    }
+
+    /**
+     * Approves every payment except the one referenced {@code declined-7}.
+     */
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        List<PaymentRequest> requests = objectMapper.readValue(exchange.getRequestBody(), new TypeReference<>() {
+        });
+        batchSizes.add(requests.size());
+        List<PaymentResponse> responses = new ArrayList<>(requests.stream()
+                .map(request -> "declined-7".equals(request.reference())
+                        ? new PaymentResponse(false, "Insufficient funds")
+                        : new PaymentResponse(true, "Approved " + request.reference()))
+                .toList());
+        if (dropLastResponse) {
+            responses.remove(responses.size() - 1);
+        }
+        respond(exchange, 200, objectMapper.writeValueAsBytes(responses));
+    }
+
+    private void handleSingle(HttpExchange exchange) throws IOException {
+        PaymentRequest request = objectMapper.readValue(exchange.getRequestBody(), PaymentRequest.class);
+        singleCalls.incrementAndGet();
+        respond(exchange, 201, objectMapper.writeValueAsBytes(new PaymentResponse(true, "Approved " + request.reference())));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private RestClient restClient() {
+        HttpMessageConverters converters = new HttpMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper));
+        return Feign.builder()
+                .contract(new SpringMvcContract())
+                .encoder(new SpringEncoder(() -> converters))
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(() -> converters)))
+                .target(RestClient.class, "http://localhost:" + stub.getAddress().getPort() + "/payments");
+    }
+}
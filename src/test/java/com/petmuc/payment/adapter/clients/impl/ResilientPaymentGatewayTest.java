@@ -0,0 +1,134 @@
+package com.petmuc.payment.adapter.clients.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmuc.payment.adapter.clients.RestClient;
+import com.petmuc.payment.api.dtos.PaymentRequest;
+import com.petmuc.payment.api.dtos.PaymentResponse;
+import com.petmuc.payment.exception.GatewayUnavailableException;
+import com.petmuc.payment.exception.PaymentProcessingException;
+import com.petmuc.payment.utils.MessageUtil;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientPaymentGatewayTest {
+
+    @Mock
+    private RestClient restClient;
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private SimpleMeterRegistry meterRegistry;
+    private ResilientPaymentGateway gateway;
+    private PaymentRequest request;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = CircuitBreaker.ofDefaults("test");
+        bulkhead = Bulkhead.of("test", BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build());
+        meterRegistry = new SimpleMeterRegistry();
+        gateway = new ResilientPaymentGateway(restClient, circuitBreaker, bulkhead, messageUtil, meterRegistry, new ObjectMapper());
+        request = new PaymentRequest("ref-1", 1L, 10.0);
+    }
+
+    @Test
+    void shouldPassCallThroughWhenCircuitIsClosed() {
+
+        ResponseEntity<PaymentResponse> created = new ResponseEntity<>(new PaymentResponse(true, "OK"), HttpStatus.CREATED);
+        Mockito.when(restClient.payment(request)).thenReturn(created);
+
+        assertEquals(created, gateway.payment(request));
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @Test
+    void shouldFailFastWithoutCallingGatewayWhenCircuitIsOpen() {
+
+        circuitBreaker.transitionToOpenState();
+        Mockito.when(messageUtil.getGatewayUnavailableMessage()).thenReturn("unavailable");
+        Mockito.when(messageUtil.getPaymentProcessingErrorMessage(eq("ref-1"), eq("unavailable"))).thenReturn("ref-1: unavailable");
+
+        GatewayUnavailableException thrown = assertThrows(GatewayUnavailableException.class, () -> gateway.payment(request));
+
+        assertEquals("ref-1: unavailable", thrown.getMessage());
+        Mockito.verifyNoInteractions(restClient);
+        assertEquals(1.0, meterRegistry.get("payment.gateway.rejections").tag("reason", "circuit_open").counter().count());
+    }
+
+    @Test
+    void shouldRejectCallWhenBulkheadIsFull() {
+
+        bulkhead.tryAcquirePermission();
+        Mockito.when(messageUtil.getGatewayBusyMessage()).thenReturn("busy");
+        Mockito.when(messageUtil.getPaymentProcessingErrorMessage(any(), any())).thenReturn("busy");
+
+        assertThrows(GatewayUnavailableException.class, () -> gateway.payment(request));
+
+        Mockito.verifyNoInteractions(restClient);
+        assertEquals(1.0, meterRegistry.get("payment.gateway.rejections").tag("reason", "bulkhead_full").counter().count());
+    }
+
+    @Test
+    void shouldReportGatewayClientErrorAsDecline() {
+
+        Mockito.when(restClient.payment(request)).thenThrow(gatewayError(402, "{\"message\":\"Insufficient funds\"}"));
+        Mockito.when(messageUtil.getPaymentProcessingErrorMessage("ref-1", "Insufficient funds")).thenReturn("ref-1: Insufficient funds");
+
+        PaymentProcessingException thrown = assertThrows(PaymentProcessingException.class, () -> gateway.payment(request));
+
+        assertEquals("ref-1: Insufficient funds", thrown.getMessage());
+    }
+
+    @Test
+    void shouldLeaveThrottledCallAsUnknownOutcome() {
+
+        FeignException tooManyRequests = gatewayError(429, "{\"message\":\"Slow down\"}");
+        Mockito.when(restClient.payment(request)).thenThrow(tooManyRequests);
+
+        assertSame(tooManyRequests, assertThrows(FeignException.class, () -> gateway.payment(request)));
+        Mockito.verifyNoInteractions(messageUtil);
+    }
+
+    @Test
+    void shouldLeaveConflictAsUnknownOutcome() {
+
+        FeignException conflict = gatewayError(409, "{\"message\":\"Reference already in progress\"}");
+        Mockito.when(restClient.payment(request)).thenThrow(conflict);
+
+        assertSame(conflict, assertThrows(FeignException.class, () -> gateway.payment(request)));
+        Mockito.verifyNoInteractions(messageUtil);
+    }
+
+    private static FeignException gatewayError(int status, String body) {
+        Request gatewayRequest = Request.create(Request.HttpMethod.POST, "/payments", Map.of(), null, StandardCharsets.UTF_8, null);
+        Response response = Response.builder().status(status).reason("").request(gatewayRequest)
+                .body(body, StandardCharsets.UTF_8).build();
+        return FeignException.errorStatus("RestClient#payment(PaymentRequest)", response);
+    }
+}
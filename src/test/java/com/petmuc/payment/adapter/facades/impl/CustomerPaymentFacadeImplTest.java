@@ -0,0 +1,152 @@
+package com.petmuc.payment.adapter.facades.impl;
+
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.services.AsyncPaymentService;
+import com.petmuc.payment.domain.services.CustomerImportService;
+import com.petmuc.payment.domain.services.CustomerService;
+import com.petmuc.payment.domain.services.IdempotencyService;
+import com.petmuc.payment.domain.services.PaymentExportService;
+import com.petmuc.payment.domain.services.PaymentRateLimiter;
+import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.domain.services.ReversalService;
+import com.petmuc.payment.exception.RateLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerPaymentFacadeImplTest {
+
+    private static final Long CUSTOMER_ID = 1L;
+    private static final String IDEMPOTENCY_KEY = "order-42";
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private ReversalService reversalService;
+
+    @Mock
+    private CustomerImportService customerImportService;
+
+    @Mock
+    private PaymentExportService paymentExportService;
+
+    @Mock
+    private AsyncPaymentService asyncPaymentService;
+
+    @Mock
+    private PaymentRateLimiter paymentRateLimiter;
+
+    private final PaymentProperties paymentProperties = new PaymentProperties();
+
+    private CustomerPaymentFacadeImpl facade;
+
+    @BeforeEach
+    void setUp() {
+        paymentProperties.getBatch().setMaxItems(3);
+        facade = new CustomerPaymentFacadeImpl(customerService, paymentService, idempotencyService, reversalService,
+                customerImportService, paymentExportService, asyncPaymentService, paymentRateLimiter, paymentProperties);
+    }
+
+    @Test
+    void shouldChargeTheRateLimitForEveryPaymentOfABatch() {
+        List<Payment> batch = List.of(payment(), payment(), payment());
+
+        facade.makePayments(CUSTOMER_ID, batch);
+
+        Mockito.verify(paymentRateLimiter).acquire(CUSTOMER_ID, 3);
+        Mockito.verify(paymentService).makePayments(CUSTOMER_ID, batch);
+    }
+
+    @Test
+    void shouldNotChargeABatchTheServiceRejects() {
+        List<Payment> batch = List.of(payment(), payment(), payment(), payment());
+
+        facade.makePayments(CUSTOMER_ID, batch);
+        facade.makePayments(CUSTOMER_ID, List.of());
+
+        Mockito.verify(paymentRateLimiter, Mockito.never()).acquire(anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldNotSendARateLimitedBatch() {
+        List<Payment> batch = List.of(payment(), payment());
+        Mockito.doThrow(new RateLimitExceededException("too many", Duration.ofSeconds(1)))
+                .when(paymentRateLimiter).acquire(CUSTOMER_ID, 2);
+
+        assertThrows(RateLimitExceededException.class, () -> facade.makePayments(CUSTOMER_ID, batch));
+        Mockito.verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldOnlyChargeIdempotentPaymentOnceTheKeyIsClaimed() {
+        Payment payment = payment();
+        Payment recorded = payment();
+        ArgumentCaptor<Supplier<Payment>> record = ArgumentCaptor.forClass(Supplier.class);
+        Mockito.when(idempotencyService.execute(eq(CUSTOMER_ID), eq(IDEMPOTENCY_KEY), eq(payment), record.capture(), any()))
+                .thenReturn(recorded);
+
+        assertSame(recorded, facade.makePayment(CUSTOMER_ID, payment, IDEMPOTENCY_KEY));
+        Mockito.verifyNoInteractions(paymentRateLimiter);
+
+        Mockito.when(paymentService.recordPayment(CUSTOMER_ID, payment)).thenReturn(recorded);
+        assertSame(recorded, record.getValue().get());
+        Mockito.verify(paymentRateLimiter).acquire(CUSTOMER_ID);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldNotRecordIdempotentPaymentWhenRateLimited() {
+        Payment payment = payment();
+        ArgumentCaptor<Supplier<Payment>> record = ArgumentCaptor.forClass(Supplier.class);
+        Mockito.when(idempotencyService.execute(eq(CUSTOMER_ID), eq(IDEMPOTENCY_KEY), eq(payment), record.capture(), any()))
+                .thenReturn(payment);
+        Mockito.doThrow(new RateLimitExceededException("too many", Duration.ofSeconds(1)))
+                .when(paymentRateLimiter).acquire(CUSTOMER_ID);
+
+        facade.makePayment(CUSTOMER_ID, payment, IDEMPOTENCY_KEY);
+
+        assertThrows(RateLimitExceededException.class, () -> record.getValue().get());
+        Mockito.verify(paymentService, Mockito.never()).recordPayment(any(), any());
+    }
+
+    @Test
+    void shouldChargePaymentWithoutIdempotencyKeyUpFront() {
+        Payment payment = payment();
+
+        facade.makePayment(CUSTOMER_ID, payment, null);
+
+        Mockito.verify(paymentRateLimiter).acquire(CUSTOMER_ID);
+        Mockito.verify(paymentService).makePayment(CUSTOMER_ID, payment);
+        Mockito.verifyNoInteractions(idempotencyService);
+    }
+
+    private static Payment payment() {
+        return new Payment("VISA", new BigDecimal("10.00"), null, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.petmuc.payment.aop;
+
+import com.petmuc.payment.adapter.clients.PaymentGateway;
+import com.petmuc.payment.api.dtos.PaymentRequest;
+import com.petmuc.payment.api.dtos.PaymentResponse;
+import com.petmuc.payment.api.dtos.ReversalRequest;
+import com.petmuc.payment.api.dtos.ReversalResponse;
+import com.petmuc.payment.exception.PaymentProcessingException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaymentLoggingAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentGateway paymentGateway;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        PaymentGateway target = new PaymentGateway() {
+            @Override
+            public ResponseEntity<PaymentResponse> payment(PaymentRequest request) {
+                return new ResponseEntity<>(new PaymentResponse(true, "Approved"), HttpStatus.CREATED);
+            }
+
+            @Override
+            public ResponseEntity<List<PaymentResponse>> paymentBatch(List<PaymentRequest> requests) {
+                return new ResponseEntity<>(List.of(), HttpStatus.CREATED);
+            }
+
+            @Override
+            public ResponseEntity<ReversalResponse> paymentReversal(ReversalRequest request) {
+                throw new PaymentProcessingException("declined");
+            }
+        };
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new PaymentLoggingAspect(new MethodLatencyRecorder(meterRegistry)));
+        paymentGateway = proxyFactory.getProxy();
+    }
+
+    @Test
+    void shouldRecordLatencyTaggedBySuccess() {
+        paymentGateway.payment(new PaymentRequest("ref-1", 1L, 10.0));
+        paymentGateway.payment(new PaymentRequest("ref-2", 1L, 10.0));
+
+        Timer timer = meterRegistry.get(MethodLatencyRecorder.METRIC_NAME)
+                .tags("layer", "gateway", "class", "PaymentGateway", "method", "payment", "outcome", "success", "exception", "none")
+                .timer();
+        assertEquals(2, timer.count());
+    }
+
+    @Test
+    void shouldRecordLatencyTaggedByExceptionType() {
+        assertThrows(PaymentProcessingException.class, () -> paymentGateway.paymentReversal(new ReversalRequest("ref-1", 10.0)));
+
+        Timer timer = meterRegistry.get(MethodLatencyRecorder.METRIC_NAME)
+                .tags("method", "paymentReversal", "outcome", "error", "exception", "PaymentProcessingException")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+}
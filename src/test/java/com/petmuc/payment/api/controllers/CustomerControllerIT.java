@@ -9,6 +9,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.petmuc.payment.adapter.facades.impl.CustomerPaymentFacadeImpl;
 import com.petmuc.payment.config.NoSecurityConfig;
 import com.petmuc.payment.domain.models.Customer;
@@ -18,6 +19,8 @@ import com.petmuc.payment.utils.MessageUtil;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,7 +39,7 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "payment.export.fetch-size=2")
 @Import(NoSecurityConfig.class)
 class CustomerControllerIT {
 
@@ -126,7 +129,8 @@ class CustomerControllerIT {
         Mockito.verify(customerPaymentFacade, times(1)).createCustomer(customerCaptor.capture());
         Mockito.verify(customerService, times(1)).createCustomer(customerCaptor.capture());
 
-        Mockito.verify(customerRepository, times(1)).save(Mockito.any(Customer.class));
+        Mockito.verify(customerRepository, times(1)).insertIfAbsent("John Doe", "john.doe@hellomail.com");
+        Mockito.verify(customerRepository, times(0)).save(Mockito.any(Customer.class));
 
         Optional<Customer> savedCustomer = customerRepository.findCustomerByEmail(customerCaptor.getValue().getEmail());
         assertThat(savedCustomer).isPresent();
@@ -157,7 +161,8 @@ class CustomerControllerIT {
         ArgumentCaptor<Customer> customerCaptor = ArgumentCaptor.forClass(Customer.class);
         Mockito.verify(customerPaymentFacade, times(1)).createCustomer(customerCaptor.capture());
         Mockito.verify(customerService, times(1)).createCustomer(customerCaptor.capture());
-        Mockito.verify(customerRepository, times(1)).findCustomerByEmail(customerCaptor.getValue().getEmail());
+        Mockito.verify(customerRepository, times(1)).insertIfAbsent(customerCaptor.getValue().getName(), customerCaptor.getValue().getEmail());
+        Mockito.verify(customerRepository, times(0)).findCustomerByEmail(customerCaptor.getValue().getEmail());
 
         assertThat(customerCaptor.getValue().getEmail()).isEqualTo(customer.getEmail());
 
@@ -231,5 +236,83 @@ class CustomerControllerIT {
 
     }
 
+    @Test
+    void shouldReturnNotFoundForStatusOfUnknownPayment() {
+
+        given()
+                .pathParam("id", Long.MAX_VALUE)
+                .when()
+                .get("/api/v1/customers/payments/{id}/status")
+                .then()
+                .log().ifError()
+                .statusCode(404)
+                .body("title", equalTo("Payment Not Found"))
+                .body("detail", equalTo("Payment not found with id: " + Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldReturnNotFoundForReversalOfUnknownPayment() {
+
+        given()
+                .pathParam("id", Long.MAX_VALUE)
+                .when()
+                .post("/api/v1/customers/payments/{id}/reversal")
+                .then()
+                .log().ifError()
+                .statusCode(404)
+                .body("title", equalTo("Payment Not Found"))
+                .body("detail", equalTo("Payment not found with id: " + Long.MAX_VALUE));
+
+        Mockito.verify(customerPaymentFacade, times(1)).requestReversal(Long.MAX_VALUE);
+    }
 
-}
\ No newline at end of file
+    @Test
+    void shouldStreamEveryCustomerAsNdjsonAcrossPages() throws IOException {
+        List<Customer> saved = customerRepository.saveAll(List.of(
+                new Customer(null, "John Doe", "john@hellomail.com"),
+                new Customer(null, "Dennis Taru", "dennis@hellomail.com"),
+                new Customer(null, "Jane Doe", "jane@hellomail.com"),
+                new Customer(null, "Ada Lovelace", "ada@hellomail.com"),
+                new Customer(null, "Alan Turing", "alan@hellomail.com")
+        ));
+
+        String body = given()
+                .accept("application/x-ndjson")
+                .when()
+                .get("/api/v1/customers")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(saved.size());
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            Customer customer = objectMapper.readValue(line, Customer.class);
+            assertThat(saved).anySatisfy(expected -> {
+                assertThat(customer.getId()).isEqualTo(expected.getId());
+                assertThat(customer.getEmail()).isEqualTo(expected.getEmail());
+            });
+            ids.add(customer.getId());
+        }
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldStreamNothingWhenThereAreNoCustomers() {
+
+        String body = given()
+                .accept("application/x-ndjson")
+                .when()
+                .get("/api/v1/customers")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+
+        assertThat(body).isEmpty();
+    }
+}
@@ -0,0 +1,144 @@
+package com.petmuc.payment.api.controllers;
+
+import com.petmuc.payment.config.NoSecurityConfig;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.repositories.CustomerRepository;
+import io.restassured.RestAssured;
+import io.restassured.config.DecoderConfig;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Downloads the payment export end to end: COPY TO STDOUT on Postgres, streamed through the controller as plain CSV
+ * or gzip depending on Accept-Encoding. The client's own decompression is switched off so the raw body is checked.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.sql.init.mode=always")
+@Import(NoSecurityConfig.class)
+class PaymentExportIT {
+
+    private static final String HEADER = "id,customer_id,amount,method,status,reference,payment_date";
+    private static final int PAYMENTS = 5_000;
+
+    @LocalServerPort
+    private Integer port;
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+        RestAssured.reset();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.baseURI = "http://localhost:" + port;
+        RestAssured.config = RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders());
+        jdbcTemplate.update("DELETE FROM payments");
+        customer = customerRepository.save(new Customer(null, "John Doe", UUID.randomUUID() + "@hellomail.com"));
+        jdbcTemplate.update("INSERT INTO payments (method, amount, customer_id, payment_date, reference, status)"
+                        + " SELECT 'CARD', 10, ?, ? - g * INTERVAL '1 second', md5(g::text), 'SUCCEEDED'"
+                        + " FROM generate_series(0, ? - 1) g",
+                customer.getId(), Timestamp.valueOf(LocalDateTime.now().withNano(0)), PAYMENTS);
+    }
+
+    @Test
+    void shouldStreamEveryPaymentAsPlainCsv() {
+        Response response = given()
+                .when()
+                .get("/api/v1/customers/payments/export")
+                .then()
+                .statusCode(200)
+                .contentType("text/csv")
+                .header("Content-Disposition", "attachment; filename=\"payments.csv\"")
+                .extract().response();
+
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertCsv(response.asByteArray(), PAYMENTS);
+    }
+
+    @Test
+    void shouldStreamEveryPaymentAsGzipWhenAccepted() throws IOException {
+        Response response = given()
+                .header("Accept-Encoding", "gzip")
+                .when()
+                .get("/api/v1/customers/payments/export")
+                .then()
+                .statusCode(200)
+                .contentType("text/csv")
+                .header("Content-Encoding", "gzip")
+                .header("Vary", "Accept-Encoding")
+                .extract().response();
+
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.asByteArray()))) {
+            assertCsv(gzip.readAllBytes(), PAYMENTS);
+        }
+    }
+
+    @Test
+    void shouldOnlyExportPaymentsInsideTheRange() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+        byte[] body = given()
+                .queryParam("from", tomorrow.toString())
+                .when()
+                .get("/api/v1/customers/payments/export")
+                .then()
+                .statusCode(200)
+                .extract().asByteArray();
+
+        assertCsv(body, 0);
+    }
+
+    private void assertCsv(byte[] body, int expectedRows) {
+        List<String> lines = new String(body, StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(expectedRows + 1);
+        assertThat(lines.get(0)).isEqualTo(HEADER);
+        lines.stream().skip(1).forEach(line -> assertThat(line).contains("," + customer.getId() + ",10.00,CARD,SUCCEEDED,"));
+    }
+}
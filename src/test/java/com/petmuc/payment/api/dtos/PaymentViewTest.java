@@ -0,0 +1,32 @@
+package com.petmuc.payment.api.dtos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaymentViewTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void shouldSerializeExactlyLikeThePaymentEntity() throws Exception {
+        LocalDateTime paymentDate = LocalDateTime.of(2024, 5, 1, 10, 30, 15);
+        Customer customer = new Customer(1L, "John Doe", "john.doe@example.com");
+        Payment payment = new Payment(7L, "VISA", new BigDecimal("120.50"), customer, "ref-7");
+        payment.setPaymentDate(paymentDate);
+        payment.setStatus(PaymentStatus.SUCCEEDED);
+
+        PaymentView view = new PaymentView(7L, "VISA", new BigDecimal("120.50"), 1L, "John Doe", "john.doe@example.com",
+                paymentDate, "ref-7", PaymentStatus.SUCCEEDED);
+
+        assertEquals(objectMapper.writeValueAsString(payment), objectMapper.writeValueAsString(view));
+    }
+}
@@ -0,0 +1,59 @@
+package com.petmuc.payment.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataSourceConfigTest {
+
+    @Test
+    void shouldMapPoolPropertiesOntoHikariConfig() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:postgresql://localhost:5432/payments");
+        properties.setUsername("payments");
+        properties.setPassword("secret");
+        properties.setDriverClassName("org.postgresql.Driver");
+        properties.getPool().setMaximumPoolSize(32);
+        properties.getPool().setMinimumIdle(8);
+        properties.getPool().setMaxLifetime(Duration.ofMinutes(15));
+        properties.getPool().setLeakDetectionThreshold(Duration.ofSeconds(20));
+        properties.getPool().setPreparedStatementCacheQueries(512);
+
+        HikariConfig config = DataSourceConfig.hikariConfig(properties);
+
+        assertEquals("jdbc:postgresql://localhost:5432/payments", config.getJdbcUrl());
+        assertEquals("payments", config.getUsername());
+        assertEquals("payment-pool", config.getPoolName());
+        assertEquals(32, config.getMaximumPoolSize());
+        assertEquals(8, config.getMinimumIdle());
+        assertEquals(Duration.ofMinutes(15).toMillis(), config.getMaxLifetime());
+        assertEquals(Duration.ofSeconds(20).toMillis(), config.getLeakDetectionThreshold());
+        assertEquals(512, config.getDataSourceProperties().get("preparedStatementCacheQueries"));
+        assertEquals(5, config.getDataSourceProperties().get("prepareThreshold"));
+    }
+
+    @Test
+    void shouldDeriveReplicaPoolsFromThePrimarySettings() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:postgresql://primary:5432/payments");
+        properties.setUsername("payments");
+        properties.setPassword("secret");
+        properties.getPool().setMaximumPoolSize(32);
+        properties.getReplicas().setUrls(List.of("jdbc:postgresql://replica-a:5432/payments", "jdbc:postgresql://replica-b:5432/payments"));
+        properties.getReplicas().setUsername("reader");
+
+        HikariConfig config = DataSourceConfig.replicaHikariConfig(properties, 1);
+
+        assertEquals("jdbc:postgresql://replica-b:5432/payments", config.getJdbcUrl());
+        assertEquals("reader", config.getUsername());
+        assertEquals("secret", config.getPassword());
+        assertEquals("payment-pool-replica-1", config.getPoolName());
+        assertEquals(32, config.getMaximumPoolSize());
+        assertTrue(config.isReadOnly());
+    }
+}
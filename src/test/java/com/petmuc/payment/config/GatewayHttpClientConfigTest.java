@@ -0,0 +1,37 @@
+package com.petmuc.payment.config;
+
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class GatewayHttpClientConfigTest {
+
+    @Test
+    void shouldApplyConfiguredTimeoutsToFeignOptions() {
+        GatewayProperties properties = new GatewayProperties();
+        properties.getHttp().setConnectTimeout(Duration.ofMillis(750));
+        properties.getHttp().setReadTimeout(Duration.ofSeconds(3));
+
+        Request.Options options = new GatewayHttpClientConfig(properties).feignRequestOptions();
+
+        assertEquals(750, options.connectTimeoutMillis());
+        assertEquals(3000, options.readTimeoutMillis());
+    }
+
+    @Test
+    void shouldRegisterPoolAndReuseMetrics() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        try (CloseableHttpClient ignored = new GatewayHttpClientConfig(new GatewayProperties()).gatewayHttpClient(registry)) {
+            assertNotNull(registry.find("payment.gateway.http.connection.reuse.ratio").gauge());
+            assertNotNull(registry.find("httpcomponents.httpclient.pool.total.max").tag("httpclient", "paymentGateway").gauge());
+            assertEquals(200, registry.get("httpcomponents.httpclient.pool.total.max").gauge().value());
+        }
+    }
+}
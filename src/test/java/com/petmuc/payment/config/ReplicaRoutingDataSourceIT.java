@@ -0,0 +1,135 @@
+package com.petmuc.payment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the routing data source against two Postgres containers; the second one stands in for a read replica.
+ * Each database holds a different marker row, so a query shows which one served it.
+ */
+class ReplicaRoutingDataSourceIT {
+
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16-alpine");
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+    private DataSourceConfig.RoutingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeAll
+    static void beforeAll() {
+        primary.start();
+        replica.start();
+        mark(primary, "primary");
+        mark(replica, "replica");
+    }
+
+    @AfterAll
+    static void afterAll() {
+        replica.stop();
+        primary.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        replicaRoutingDataSource = new ReplicaRoutingDataSource(pool(primary), List.of(pool(replica)),
+                new ReadYourWritesTracker(Duration.ofMinutes(1), 100));
+        dataSource = DataSourceConfig.routingDataSource(replicaRoutingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ReadYourWritesTracker.clearClient();
+        dataSource.close();
+    }
+
+    @Test
+    void shouldServeReadOnlyTransactionsFromTheReplica() {
+        assertThat(node(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    void shouldServeReadWriteTransactionsFromThePrimary() {
+        assertThat(node(writeTransaction)).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldReadFromThePrimaryRightAfterTheClientWrote() {
+        ReadYourWritesTracker.bindClient("client-1");
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET touched = now()"));
+
+        assertThat(node(readOnlyTransaction)).isEqualTo("primary");
+
+        ReadYourWritesTracker.bindClient("client-2");
+        assertThat(node(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    void shouldFallBackToThePrimaryWhenTheReplicaFailsItsHealthCheck() throws Exception {
+        dataSource.close();
+        replicaRoutingDataSource = new ReplicaRoutingDataSource(pool(primary), List.of(unreachablePool()),
+                new ReadYourWritesTracker(Duration.ofMinutes(1), 100));
+        dataSource = DataSourceConfig.routingDataSource(replicaRoutingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnlyTransaction.setReadOnly(true);
+
+        replicaRoutingDataSource.checkReplicas(Duration.ofSeconds(1));
+
+        assertThat(replicaRoutingDataSource.healthyReplicas()).isZero();
+        assertThat(node(readOnlyTransaction)).isEqualTo("primary");
+    }
+
+    private String node(TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static void mark(PostgreSQLContainer<?> container, String name) {
+        try (HikariDataSource dataSource = pool(container)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16) NOT NULL, touched TIMESTAMP)");
+            jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        }
+    }
+
+    private static HikariDataSource pool(PostgreSQLContainer<?> container) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(container.getJdbcUrl());
+        dataSource.setUsername(container.getUsername());
+        dataSource.setPassword(container.getPassword());
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+
+    private static DataSource unreachablePool() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://localhost:1/replica");
+        dataSource.setUsername("payments");
+        dataSource.setPassword("payments");
+        dataSource.setConnectionTimeout(250);
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+}
@@ -0,0 +1,96 @@
+package com.petmuc.payment.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = Mockito.mock(Connection.class);
+    private final Connection firstReplicaConnection = Mockito.mock(Connection.class);
+    private final Connection secondReplicaConnection = Mockito.mock(Connection.class);
+    private final DataSource primary = Mockito.mock(DataSource.class);
+    private final DataSource firstReplica = Mockito.mock(DataSource.class);
+    private final DataSource secondReplica = Mockito.mock(DataSource.class);
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+        Mockito.when(firstReplica.getConnection()).thenReturn(firstReplicaConnection);
+        Mockito.when(secondReplica.getConnection()).thenReturn(secondReplicaConnection);
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica),
+                new ReadYourWritesTracker(Duration.ofMinutes(1), 100));
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        ReadYourWritesTracker.clearClient();
+    }
+
+    @Test
+    void shouldSendWritesToThePrimary() throws SQLException {
+        assertSame(primaryConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void shouldRoundRobinReadOnlyWorkOverTheReplicas() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(firstReplicaConnection, routingDataSource.getConnection());
+        assertSame(secondReplicaConnection, routingDataSource.getConnection());
+        assertSame(firstReplicaConnection, routingDataSource.getConnection());
+        Mockito.verify(primary, Mockito.never()).getConnection();
+    }
+
+    @Test
+    void shouldSkipAReplicaThatFailedItsHealthCheck() throws SQLException {
+        Mockito.when(firstReplicaConnection.isValid(anyInt())).thenReturn(false);
+        Mockito.when(secondReplicaConnection.isValid(anyInt())).thenReturn(true);
+        routingDataSource.checkReplicas(Duration.ofSeconds(1));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(secondReplicaConnection, routingDataSource.getConnection());
+        assertSame(secondReplicaConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void shouldFallBackToThePrimaryWhenNoReplicaIsReachable() throws SQLException {
+        Mockito.when(firstReplica.getConnection()).thenThrow(new SQLException("connection refused"));
+        Mockito.when(secondReplica.getConnection()).thenThrow(new SQLException("connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertSame(primaryConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void shouldKeepAClientOnThePrimaryAfterItCommittedAWrite() throws SQLException {
+        ReadYourWritesTracker.bindClient("client-1");
+        routingDataSource.getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(primaryConnection, routingDataSource.getConnection());
+
+        ReadYourWritesTracker.bindClient("client-2");
+        assertSame(firstReplicaConnection, routingDataSource.getConnection());
+    }
+}
@@ -0,0 +1,55 @@
+package com.petmuc.payment.config;
+
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.List;
+
+import static com.petmuc.payment.utils.QueryCountAssertions.assertMaxStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlStatementCounterTest {
+
+    private final SqlStatementCounter inspector = new SqlStatementCounter();
+
+    @Test
+    void shouldCountStatementsIntoEveryOpenRecording() {
+        try (SqlStatementCounter.Recording request = SqlStatementCounter.start()) {
+            inspector.inspect("select 1");
+            try (SqlStatementCounter.Recording nested = SqlStatementCounter.startCapturing()) {
+                assertEquals("select 2", inspector.inspect("select 2"));
+                assertEquals(1, nested.count());
+                assertEquals(List.of("select 2"), nested.statements());
+            }
+            inspector.inspect("select 3");
+            assertEquals(3, request.count());
+            assertTrue(request.statements().isEmpty());
+        }
+    }
+
+    @Test
+    void shouldFailWithTheIssuedStatementsWhenOverTheExpectedCount() {
+        AssertionFailedError failure = assertThrows(AssertionFailedError.class, () -> assertMaxStatements(1, () -> {
+            inspector.inspect("select p from payments p");
+            inspector.inspect("select c from customers c where c.id=?");
+            return null;
+        }));
+
+        assertTrue(failure.getMessage().contains("select c from customers c where c.id=?"));
+        assertEquals("ok", assertMaxStatements(1, () -> {
+            inspector.inspect("select 1");
+            return "ok";
+        }));
+    }
+
+    @Test
+    void shouldRedactLiteralsFromSlowQueries() {
+        String rendered = "select p1_0.id from payments_2024_01 p1_0 where p1_0.customer_id=('42'::int8)"
+                + " and p1_0.reference='O''Brien' and p1_0.amount>10.50 limit 51";
+
+        assertEquals("select p1_0.id from payments_2024_01 p1_0 where p1_0.customer_id=(?::int8)"
+                + " and p1_0.reference=? and p1_0.amount>? limit ?", RedactingStatistics.redact(rendered));
+    }
+}
@@ -0,0 +1,185 @@
+package com.petmuc.payment.domain.repositories;
+
+import com.petmuc.payment.domain.models.PaymentReversal;
+import com.petmuc.payment.domain.models.ReversalStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the reversal outbox's native statements against Postgres: the idempotent enqueue and the leasing claim that
+ * lets several workers drain the queue without handing the same reversal to two of them. The reversal worker is
+ * switched off so only the test claims rows.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"spring.sql.init.mode=always", "payment.reversal.enabled=false"})
+class PaymentReversalRepositoryIT {
+
+    private static final long LEASE_SECONDS = 60;
+    private static final LocalDateTime PAYMENT_DATE = LocalDateTime.of(2024, 5, 31, 23, 59);
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private PaymentReversalRepository paymentReversalRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update("DELETE FROM payment_reversals");
+    }
+
+    @Test
+    void shouldEnqueueOneReversalPerPayment() {
+        assertThat(enqueue(1L)).isEqualTo(1);
+        assertThat(enqueue(1L)).isZero();
+
+        PaymentReversal reversal = paymentReversalRepository.findByPaymentId(1L).orElseThrow();
+        assertThat(paymentReversalRepository.count()).isEqualTo(1);
+        assertThat(reversal.getStatus()).isEqualTo(ReversalStatus.PENDING);
+        assertThat(reversal.getAttempts()).isZero();
+        assertThat(reversal.getPaymentDate()).isEqualTo(PAYMENT_DATE);
+        assertThat(reversal.getAmount()).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    void shouldLeaseClaimedReversalsUntilTheLeaseExpires() {
+        enqueue(1L);
+
+        List<PaymentReversal> claimed = claim(10);
+        assertThat(claimed).extracting(PaymentReversal::getPaymentId).containsExactly(1L);
+        assertThat(claimed.get(0).getAttempts()).isEqualTo(1);
+        assertThat(claimed.get(0).getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(LEASE_SECONDS / 2));
+        assertThat(claim(10)).isEmpty();
+
+        // The worker that claimed it crashed: once the lease has run out the reversal is due again.
+        jdbcTemplate.update("UPDATE payment_reversals SET next_attempt_at = now() - INTERVAL '1 second'");
+
+        List<PaymentReversal> reclaimed = claim(10);
+        assertThat(reclaimed).extracting(PaymentReversal::getPaymentId).containsExactly(1L);
+        assertThat(reclaimed.get(0).getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldGiveTheAttemptBackWhenAClaimedReversalIsRescheduled() {
+        enqueue(1L);
+        PaymentReversal claimed = claim(10).get(0);
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusMinutes(5);
+
+        transactionTemplate.executeWithoutResult(status ->
+                paymentReversalRepository.reschedule(claimed.getId(), nextAttemptAt, "circuit open", LocalDateTime.now()));
+
+        PaymentReversal rescheduled = paymentReversalRepository.findByPaymentId(1L).orElseThrow();
+        assertThat(rescheduled.getStatus()).isEqualTo(ReversalStatus.PENDING);
+        assertThat(rescheduled.getAttempts()).isZero();
+        assertThat(rescheduled.getLastError()).isEqualTo("circuit open");
+        assertThat(claim(10)).isEmpty();
+    }
+
+    @Test
+    void shouldNotClaimReversalsThatAreNotPendingOrNotYetDue() {
+        enqueue(1L);
+        enqueue(2L);
+        enqueue(3L);
+        jdbcTemplate.update("UPDATE payment_reversals SET status = 'SUCCEEDED' WHERE payment_id = 1");
+        jdbcTemplate.update("UPDATE payment_reversals SET next_attempt_at = now() + INTERVAL '1 hour' WHERE payment_id = 2");
+
+        assertThat(claim(10)).extracting(PaymentReversal::getPaymentId).containsExactly(3L);
+    }
+
+    @Test
+    void shouldHandConcurrentClaimersDisjointBatches() throws Exception {
+        for (long paymentId = 1; paymentId <= 10; paymentId++) {
+            enqueue(paymentId);
+        }
+        CountDownLatch firstClaimed = new CountDownLatch(1);
+        CountDownLatch secondClaimed = new CountDownLatch(1);
+
+        // The first claimer keeps its transaction, and so its row locks, open until the second one has claimed.
+        CompletableFuture<List<PaymentReversal>> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            List<PaymentReversal> batch = paymentReversalRepository.claimDue(4, LEASE_SECONDS);
+            firstClaimed.countDown();
+            await(secondClaimed);
+            return batch;
+        }));
+        await(firstClaimed);
+        List<PaymentReversal> second = claim(4);
+        secondClaimed.countDown();
+
+        Set<Long> firstIds = paymentIds(first.get(30, TimeUnit.SECONDS));
+        Set<Long> secondIds = paymentIds(second);
+        assertThat(firstIds).hasSize(4);
+        assertThat(secondIds).hasSize(4).doesNotContainAnyElementsOf(firstIds);
+        assertThat(paymentIds(claim(10))).hasSize(2).doesNotContainAnyElementsOf(firstIds).doesNotContainAnyElementsOf(secondIds);
+    }
+
+    private int enqueue(Long paymentId) {
+        Integer enqueued = transactionTemplate.execute(status ->
+                paymentReversalRepository.enqueue(paymentId, PAYMENT_DATE, "ref-" + paymentId, new BigDecimal("25.00")));
+        return enqueued == null ? 0 : enqueued;
+    }
+
+    private List<PaymentReversal> claim(int batchSize) {
+        return transactionTemplate.execute(status -> paymentReversalRepository.claimDue(batchSize, LEASE_SECONDS));
+    }
+
+    private static Set<Long> paymentIds(List<PaymentReversal> reversals) {
+        Set<Long> ids = new HashSet<>();
+        reversals.forEach(reversal -> ids.add(reversal.getPaymentId()));
+        return ids;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.api.dtos.PaymentStatusView;
+import com.petmuc.payment.api.dtos.PaymentView;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.exception.PaymentProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncPaymentServiceImplTest {
+
+    private static final Long CUSTOMER_ID = 1L;
+
+    @Mock
+    private PaymentService paymentService;
+
+    private final List<Runnable> queuedTasks = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private Payment pending;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pending = new Payment(10L, "CARD", new BigDecimal("25.00"), new Customer(CUSTOMER_ID, "John Doe", "john.doe@example.com"), "ref-1");
+        pending.setPaymentDate(LocalDateTime.of(2024, 11, 5, 10, 0));
+        pending.setStatus(PaymentStatus.PENDING);
+    }
+
+    @Test
+    void shouldReturnThePendingPaymentBeforeItIsSettled() {
+        Payment request = new Payment();
+        Mockito.when(paymentService.recordPayment(CUSTOMER_ID, request)).thenReturn(pending);
+
+        Payment accepted = service(queuedTasks::add).submitPayment(CUSTOMER_ID, request);
+
+        assertSame(pending, accepted);
+        assertEquals(1, queuedTasks.size());
+        Mockito.verify(paymentService, Mockito.never()).settlePayment(any());
+        assertEquals(1.0, meterRegistry.get("payment.async.submissions").tag("outcome", "queued").counter().count());
+    }
+
+    @Test
+    void shouldSettleACopySoTheAcceptedPaymentStaysPending() {
+        Mockito.when(paymentService.recordPayment(Mockito.eq(CUSTOMER_ID), any())).thenReturn(pending);
+        Mockito.doAnswer(invocation -> {
+            invocation.<Payment>getArgument(0).setStatus(PaymentStatus.SUCCEEDED);
+            return null;
+        }).when(paymentService).settlePayment(any());
+
+        Payment accepted = service(queuedTasks::add).submitPayment(CUSTOMER_ID, new Payment());
+        queuedTasks.forEach(Runnable::run);
+
+        ArgumentCaptor<Payment> settled = ArgumentCaptor.forClass(Payment.class);
+        Mockito.verify(paymentService).settlePayment(settled.capture());
+        assertNotSame(accepted, settled.getValue());
+        assertEquals(pending.getId(), settled.getValue().getId());
+        assertEquals(pending.getReference(), settled.getValue().getReference());
+        assertEquals(pending.getPaymentDate(), settled.getValue().getPaymentDate());
+        assertEquals(PaymentStatus.PENDING, accepted.getStatus());
+    }
+
+    @Test
+    void shouldOnlyQueueAPaymentRecordedInTheCallersTransactionOnceItCommits() {
+        Mockito.when(paymentService.recordPayment(Mockito.eq(CUSTOMER_ID), any())).thenReturn(pending);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            service(queuedTasks::add).submitPayment(CUSTOMER_ID, new Payment());
+            assertEquals(0, queuedTasks.size());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, queuedTasks.size());
+    }
+
+    @Test
+    void shouldSwallowWorkerFailuresSinceTheOutcomeIsAlreadyRecordedOrLeftPending() {
+        Mockito.when(paymentService.recordPayment(Mockito.eq(CUSTOMER_ID), any())).thenReturn(pending);
+        Mockito.doThrow(new PaymentProcessingException("declined"), new IllegalStateException("timeout"))
+                .when(paymentService).settlePayment(any());
+        AsyncPaymentServiceImpl asyncPaymentService = service(Runnable::run);
+
+        asyncPaymentService.submitPayment(CUSTOMER_ID, new Payment());
+        asyncPaymentService.submitPayment(CUSTOMER_ID, new Payment());
+
+        Mockito.verify(paymentService, Mockito.times(2)).settlePayment(any());
+    }
+
+    @Test
+    void shouldLeaveThePaymentToTheSweeperWhenTheQueueIsFull() {
+        Mockito.when(paymentService.recordPayment(Mockito.eq(CUSTOMER_ID), any())).thenReturn(pending);
+
+        Payment accepted = service(task -> {
+            throw new RejectedExecutionException("queue full");
+        }).submitPayment(CUSTOMER_ID, new Payment());
+
+        assertSame(pending, accepted);
+        Mockito.verify(paymentService, Mockito.never()).settlePayment(any());
+        assertEquals(1.0, meterRegistry.get("payment.async.submissions").tag("outcome", "deferred").counter().count());
+    }
+
+    @Test
+    void shouldReportThePaymentStatus() {
+        Mockito.when(paymentService.getPaymentById(10L)).thenReturn(new PaymentView(10L, "CARD", new BigDecimal("25.00"),
+                CUSTOMER_ID, "John Doe", "john.doe@example.com", pending.getPaymentDate(), "ref-1", PaymentStatus.FAILED));
+
+        assertEquals(new PaymentStatusView(10L, "ref-1", PaymentStatus.FAILED), service(Runnable::run).getPaymentStatus(10L));
+    }
+
+    private AsyncPaymentServiceImpl service(Executor executor) {
+        return new AsyncPaymentServiceImpl(paymentService, executor, meterRegistry);
+    }
+}
@@ -0,0 +1,129 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.api.dtos.CustomerImportRejection;
+import com.petmuc.payment.api.dtos.CustomerImportResult;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.CustomerImportFormat;
+import com.petmuc.payment.domain.repositories.CustomerRepository;
+import com.petmuc.payment.domain.services.CustomerImportService;
+import com.petmuc.payment.exception.ValidationException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Imports the same upload as CSV and as NDJSON through COPY into the staging table and the set-based merge, and
+ * checks how every row was classified and on which line each rejection was reported.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.sql.init.mode=always")
+class CustomerImportIT {
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private CustomerImportService customerImportService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private String domain;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Customers are kept between tests, so every test imports its own emails.
+        domain = "@" + UUID.randomUUID() + ".com";
+        customerRepository.save(new Customer(null, "Existing", "existing" + domain));
+    }
+
+    @Test
+    void shouldClassifyEveryRowOfACsvUpload() {
+        String csv = "name,email\n"
+                + "Ann," + "ann" + domain + "\n"
+                + "Bob,not-an-email\n"
+                + "," + "blank" + domain + "\n"
+                + "\"Ann, again\"," + "ann" + domain + "\n"
+                + "Existing," + "existing" + domain + "\n"
+                + "Cid," + "cid" + domain + "\n";
+
+        CustomerImportResult result = customerImportService.importCustomers(upload(csv), CustomerImportFormat.CSV);
+
+        assertClassified(result);
+    }
+
+    @Test
+    void shouldClassifyEveryRowOfAnNdjsonUpload() {
+        String ndjson = "{\"name\":\"Ann\",\"email\":\"ann" + domain + "\"}\n"
+                + "{\"name\":\"Bob\",\"email\":\"not-an-email\"}\n"
+                + "{\"email\":\"blank" + domain + "\"}\n"
+                + "{\"name\":\"Ann, again\",\"email\":\"ann" + domain + "\"}\n"
+                + "{\"name\":\"Existing\",\"email\":\"existing" + domain + "\"}\n"
+                + "{\"name\":\"Cid\",\"email\":\"cid" + domain + "\"}\n";
+
+        CustomerImportResult result = customerImportService.importCustomers(upload(ndjson), CustomerImportFormat.NDJSON);
+
+        assertClassified(result);
+    }
+
+    @Test
+    void shouldRejectACsvUploadWithTheWrongHeaderAsAWhole() {
+        String csv = "email,name\n" + "dan" + domain + ",Dan\n";
+
+        assertThrows(ValidationException.class, () -> customerImportService.importCustomers(upload(csv), CustomerImportFormat.CSV));
+        assertThat(customerRepository.findCustomerByEmail("dan" + domain)).isEmpty();
+    }
+
+    private void assertClassified(CustomerImportResult result) {
+        assertThat(result.received()).isEqualTo(6);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.alreadyExisting()).isEqualTo(1);
+        assertThat(result.duplicates()).isEqualTo(1);
+        assertThat(result.invalid()).isEqualTo(2);
+        assertThat(result.rejections()).containsExactly(
+                new CustomerImportRejection(2, "not-an-email", CustomerImportRejection.Reason.INVALID),
+                new CustomerImportRejection(3, "blank" + domain, CustomerImportRejection.Reason.INVALID),
+                new CustomerImportRejection(4, "ann" + domain, CustomerImportRejection.Reason.DUPLICATE_IN_UPLOAD),
+                new CustomerImportRejection(5, "existing" + domain, CustomerImportRejection.Reason.ALREADY_EXISTS));
+
+        assertThat(customerRepository.findCustomerByEmail("ann" + domain)).get()
+                .extracting(Customer::getName).isEqualTo("Ann");
+        assertThat(customerRepository.findCustomerByEmail("cid" + domain)).isPresent();
+        assertThat(customerRepository.findCustomerByEmail("blank" + domain)).isEmpty();
+        assertThat(customerRepository.findCustomerByEmail("existing" + domain)).get()
+                .extracting(Customer::getName).isEqualTo("Existing");
+    }
+
+    private static InputStream upload(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
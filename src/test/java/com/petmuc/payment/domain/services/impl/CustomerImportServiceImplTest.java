@@ -0,0 +1,126 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmuc.payment.api.dtos.CustomerImportResult;
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.models.CustomerImportFormat;
+import com.petmuc.payment.domain.repositories.CustomerImportRepository;
+import com.petmuc.payment.exception.ValidationException;
+import com.petmuc.payment.utils.MessageUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerImportServiceImplTest {
+
+    @Mock
+    private CustomerImportRepository customerImportRepository;
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    private CustomerImportServiceImpl customerImportService;
+
+    private final CustomerImportResult result = new CustomerImportResult(2, 2, 0, 0, 0, List.of());
+
+    @BeforeEach
+    void setUp() {
+        customerImportService = new CustomerImportServiceImpl(customerImportRepository, new ObjectMapper(), messageUtil,
+                new PaymentProperties());
+    }
+
+    @Test
+    void shouldPassCsvUploadsThroughUnchanged() throws Exception {
+        String csv = "name,email\nJohn Doe,john.doe@example.com\n";
+        String copied = copiedCsv(csv, CustomerImportFormat.CSV);
+
+        assertEquals(csv, copied);
+        Mockito.verify(customerImportRepository).importCustomers(any(), eq(1000));
+    }
+
+    @Test
+    void shouldReencodeNdjsonAsCsv() throws Exception {
+        String ndjson = "{\"name\":\"John \\\"JD\\\" Doe\",\"email\":\"john.doe@example.com\"}\n"
+                + "{\"name\":\"Doe, Jane\"}\n";
+
+        String copied = copiedCsv(ndjson, CustomerImportFormat.NDJSON);
+
+        assertEquals("name,email\n\"John \"\"JD\"\" Doe\",\"john.doe@example.com\"\n\"Doe, Jane\",\n", copied);
+    }
+
+    @Test
+    void shouldRejectMalformedNdjson() {
+        Mockito.when(customerImportRepository.importCustomers(any(), anyInt())).thenAnswer(invocation -> {
+            CustomerImportRepository.CsvWriter csvWriter = invocation.getArgument(0);
+            try {
+                csvWriter.writeTo(new ByteArrayOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return result;
+        });
+        Mockito.when(messageUtil.getInvalidCustomerImportMessage(anyString())).thenReturn("malformed");
+
+        assertThrows(ValidationException.class, () -> customerImportService.importCustomers(upload("{\"name\":"), CustomerImportFormat.NDJSON));
+    }
+
+    @Test
+    void shouldRejectUploadsThatCopyCannotParse() {
+        SQLException badCopyFormat = new SQLException("missing data for column \"email\"", "22P04");
+        Mockito.when(customerImportRepository.importCustomers(any(), anyInt()))
+                .thenThrow(new DataIntegrityViolationException("COPY failed", badCopyFormat));
+        Mockito.when(messageUtil.getInvalidCustomerImportMessage(badCopyFormat.getMessage())).thenReturn("malformed");
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> customerImportService.importCustomers(upload("name\nJohn\n"), CustomerImportFormat.CSV));
+        assertEquals("malformed", exception.getMessage());
+    }
+
+    @Test
+    void shouldPropagateOtherDatabaseFailures() {
+        QueryTimeoutException timeout = new QueryTimeoutException("timeout", new SQLException("canceled", "57014"));
+        Mockito.when(customerImportRepository.importCustomers(any(), anyInt())).thenThrow(timeout);
+
+        assertSame(timeout, assertThrows(QueryTimeoutException.class,
+                () -> customerImportService.importCustomers(upload(""), CustomerImportFormat.CSV)));
+    }
+
+    private String copiedCsv(String upload, CustomerImportFormat format) throws Exception {
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+        Mockito.when(customerImportRepository.importCustomers(any(), anyInt())).thenAnswer(invocation -> {
+            CustomerImportRepository.CsvWriter csvWriter = invocation.getArgument(0);
+            csvWriter.writeTo(copied);
+            return result;
+        });
+
+        assertSame(result, customerImportService.importCustomers(upload(upload), format));
+        return copied.toString(StandardCharsets.UTF_8);
+    }
+
+    private static InputStream upload(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,88 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.config.CacheConfig;
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.repositories.CustomerCursorRepository;
+import com.petmuc.payment.domain.repositories.CustomerRepository;
+import com.petmuc.payment.domain.services.CustomerService;
+import com.petmuc.payment.utils.MessageUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+
+@SpringJUnitConfig(classes = {CacheConfig.class, PaymentProperties.class, CustomerServiceImpl.class})
+class CustomerServiceCachingTest {
+
+    @MockBean
+    private MessageUtil messageUtil;
+
+    @MockBean
+    private CustomerRepository customerRepository;
+
+    @MockBean
+    private CustomerCursorRepository customerCursorRepository;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.CUSTOMERS_CACHE).clear();
+        customer = new Customer(1L, "John Doe", "john.doe@example.com");
+        Mockito.when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+
+        customerService.getCustomerById(1L);
+        customerService.getCustomerById(1L);
+        Customer found = customerService.getCustomerById(1L);
+
+        assertEquals("John Doe", found.getName());
+        Mockito.verify(customerRepository, Mockito.times(1)).findById(1L);
+    }
+
+    @Test
+    void shouldEvictCustomerOnUpdate() {
+
+        Mockito.when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        customerService.getCustomerById(1L);
+
+        customerService.updateCustomer(1L, new Customer(null, "Jane Doe", "jane.doe@example.com"));
+        customerService.getCustomerById(1L);
+
+        Mockito.verify(customerRepository, Mockito.times(3)).findById(1L);
+    }
+
+    @Test
+    void shouldEvictCustomerOnDelete() {
+
+        Mockito.when(customerRepository.existsById(1L)).thenReturn(true);
+        customerService.getCustomerById(1L);
+
+        customerService.deleteCustomer(1L);
+        customerService.getCustomerById(1L);
+
+        Mockito.verify(customerRepository, Mockito.times(2)).findById(1L);
+    }
+}
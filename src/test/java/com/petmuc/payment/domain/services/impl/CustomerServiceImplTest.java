@@ -37,7 +37,6 @@ public class CustomerServiceImplTest {
     private Customer customer, existingCustomer;
     @BeforeEach
     void setup() {
-        MockitoAnnotations.openMocks(this);
         customer = new Customer(1L, "John Doe", "john.doe@example.com");
         existingCustomer = new Customer(1L, "John Doe", "john.doe@example.com");
     }
@@ -48,16 +47,20 @@ public class CustomerServiceImplTest {
         @Test
         void shouldCreateCustomerSuccessfully() {
 
-            Mockito.when(customerRepository.save(any(Customer.class))).thenReturn(customer);
+            customer = new Customer(null, "John Doe", "john.doe@example.com");
+            Mockito.when(customerRepository.insertIfAbsent(customer.getName(), customer.getEmail())).thenReturn(Optional.of(1L));
             Customer createdCustomer = customerService.createCustomer(customer);
 
             assertEquals(customer.getName(), createdCustomer.getName());
+            assertEquals(1L, createdCustomer.getId());
+            Mockito.verify(customerRepository, Mockito.times(1)).insertIfAbsent(customer.getName(), customer.getEmail());
+            Mockito.verifyNoMoreInteractions(customerRepository);
         }
 
         @Test
         void shouldThrowGenericExceptionAndFailWhenCreatingCustomer() {
 
-            Mockito.when(customerRepository.save(any(Customer.class))).thenThrow(ConstraintViolationException.class);
+            Mockito.when(customerRepository.insertIfAbsent(customer.getName(), customer.getEmail())).thenThrow(ConstraintViolationException.class);
             assertThrows(Exception.class, () -> customerService.createCustomer(customer));
 
         }
@@ -66,15 +69,16 @@ public class CustomerServiceImplTest {
         void shouldThrowCustomerAlreadyExistsExceptionWhenCreatingCustomer() {
 
             customer = new Customer(null, "John Doe", "john.doe@example.com");
-            Mockito.when(customerRepository.findCustomerByEmail(customer.getEmail()))
-                    .thenReturn(Optional.of(customer));
+            Mockito.when(customerRepository.insertIfAbsent(customer.getName(), customer.getEmail()))
+                    .thenReturn(Optional.empty());
             Mockito.when(messageUtil.getCustomerAlreadyExistsMessage(customer.getEmail()))
                     .thenReturn("Customer not found with id: " + customer.getEmail());
 
             CustomerAlreadyExistsException thrownException = assertThrows(CustomerAlreadyExistsException.class, () -> customerService.createCustomer(customer));
 
-            Mockito.verify(customerRepository, Mockito.times(1)).findCustomerByEmail(customer.getEmail());
+            Mockito.verify(customerRepository, Mockito.times(1)).insertIfAbsent(customer.getName(), customer.getEmail());
             assertEquals(messageUtil.getCustomerAlreadyExistsMessage(customer.getEmail()), thrownException.getMessage());
+            Mockito.verify(customerRepository, Mockito.times(0)).findCustomerByEmail(any());
             Mockito.verify(customerRepository, Mockito.times(0)).save(any(Customer.class));
         }
 
@@ -0,0 +1,297 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.IdempotencyRecord;
+import com.petmuc.payment.domain.models.IdempotencyStatus;
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import com.petmuc.payment.domain.repositories.IdempotencyRecordRepository;
+import com.petmuc.payment.domain.repositories.PaymentRepository;
+import com.petmuc.payment.exception.IdempotencyConflictException;
+import com.petmuc.payment.exception.PaymentProcessingException;
+import com.petmuc.payment.exception.ValidationException;
+import com.petmuc.payment.utils.MessageUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+    private static final Long CUSTOMER_ID = 1L;
+    private static final String KEY = "5b8e1a4c-retry-1";
+    private static final String SCOPED_KEY = CUSTOMER_ID + ":" + KEY;
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private IdempotencyServiceImpl idempotencyService;
+    private Payment request;
+    private Payment processed;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(messageUtil, idempotencyRecordRepository, paymentRepository,
+                transactionManager, objectMapper, new PaymentProperties());
+        request = new Payment("VISA", new BigDecimal("120.00"), null, null);
+        processed = new Payment(7L, "VISA", new BigDecimal("120.00"), new Customer(CUSTOMER_ID, "John Doe", "john.doe@example.com"), "ref-7");
+        processed.setPaymentDate(LocalDateTime.of(2024, 5, 1, 10, 30));
+        processed.setStatus(PaymentStatus.SUCCEEDED);
+    }
+
+    @Test
+    void shouldReplayFromMemoryWithoutRunningAgainOrTouchingTheStore() {
+        Mockito.when(idempotencyRecordRepository.claim(Mockito.eq(SCOPED_KEY), anyString())).thenReturn(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        Payment first = idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> {
+            runs.incrementAndGet();
+            return processed;
+        });
+        Payment replayed = idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> {
+            runs.incrementAndGet();
+            return processed;
+        });
+
+        assertSame(first, replayed);
+        assertEquals(1, runs.get());
+        Mockito.verify(idempotencyRecordRepository, Mockito.times(1)).claim(Mockito.eq(SCOPED_KEY), anyString());
+        Mockito.verify(idempotencyRecordRepository).complete(Mockito.eq(SCOPED_KEY), anyString());
+        Mockito.verify(idempotencyRecordRepository, Mockito.never()).findById(anyString());
+    }
+
+    @Test
+    void shouldReplayStoredResponseWhenKeyWasClaimedElsewhere() throws Exception {
+        String hash = IdempotencyServiceImpl.fingerprint(CUSTOMER_ID, request);
+        Mockito.when(idempotencyRecordRepository.claim(SCOPED_KEY, hash)).thenReturn(0);
+        Mockito.when(idempotencyRecordRepository.findById(SCOPED_KEY)).thenReturn(Optional.of(
+                new IdempotencyRecord(SCOPED_KEY, hash, IdempotencyStatus.COMPLETED, objectMapper.writeValueAsString(processed))));
+
+        Payment replayed = idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> {
+            throw new AssertionError("must not run");
+        });
+
+        assertEquals(7L, replayed.getId());
+        assertEquals("ref-7", replayed.getReference());
+        assertEquals(PaymentStatus.SUCCEEDED, replayed.getStatus());
+    }
+
+    @Test
+    void shouldRejectKeyStillInProgressElsewhere() {
+        String hash = IdempotencyServiceImpl.fingerprint(CUSTOMER_ID, request);
+        Mockito.when(idempotencyRecordRepository.claim(SCOPED_KEY, hash)).thenReturn(0);
+        Mockito.when(idempotencyRecordRepository.findById(SCOPED_KEY)).thenReturn(Optional.of(
+                new IdempotencyRecord(SCOPED_KEY, hash, IdempotencyStatus.IN_PROGRESS, null)));
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> processed));
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentPayment() {
+        Mockito.when(idempotencyRecordRepository.claim(Mockito.eq(SCOPED_KEY), anyString())).thenReturn(1);
+        idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> processed);
+
+        Payment different = new Payment("VISA", new BigDecimal("999.00"), null, null);
+
+        assertThrows(ValidationException.class,
+                () -> idempotencyService.execute(CUSTOMER_ID, KEY, different, () -> processed));
+    }
+
+    @Test
+    void shouldReleaseKeyWhenOperationFails() {
+        Mockito.when(idempotencyRecordRepository.claim(Mockito.eq(SCOPED_KEY), anyString())).thenReturn(1);
+
+        assertThrows(PaymentProcessingException.class, () -> idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> {
+            throw new PaymentProcessingException("declined");
+        }));
+
+        Mockito.verify(idempotencyRecordRepository).release(SCOPED_KEY);
+        Mockito.verify(idempotencyRecordRepository, Mockito.never()).complete(anyString(), anyString());
+    }
+
+    @Test
+    void shouldReleaseKeyWhenGatewayDeclinesRecordedPayment() {
+        Mockito.when(idempotencyRecordRepository.claim(Mockito.eq(SCOPED_KEY), anyString())).thenReturn(1);
+
+        assertThrows(PaymentProcessingException.class, () -> idempotencyService.execute(CUSTOMER_ID, KEY, request,
+                () -> processed, payment -> {
+                    throw new PaymentProcessingException("declined");
+                }));
+
+        Mockito.verify(idempotencyRecordRepository).bindPayment(SCOPED_KEY, 7L);
+        Mockito.verify(idempotencyRecordRepository).release(SCOPED_KEY);
+    }
+
+    @Test
+    void shouldRollBackTheRecordedPaymentWhenTheKeyCannotBeBound() {
+        Mockito.when(idempotencyRecordRepository.claim(Mockito.eq(SCOPED_KEY), anyString())).thenReturn(1);
+        Mockito.when(idempotencyRecordRepository.bindPayment(SCOPED_KEY, 7L))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+        AtomicInteger charged = new AtomicInteger();
+
+        assertThrows(DataAccessResourceFailureException.class, () -> idempotencyService.execute(CUSTOMER_ID, KEY, request,
+                () -> processed, payment -> charged.incrementAndGet()));
+
+        Mockito.verify(transactionManager).rollback(Mockito.any());
+        Mockito.verify(idempotencyRecordRepository).release(SCOPED_KEY);
+        assertEquals(0, charged.get());
+    }
+
+    @Test
+    void shouldReleaseKeyAndReportTheDeclineWhenBoundPaymentFailed() {
+        processed.setStatus(PaymentStatus.FAILED);
+        bindPendingKeyTo(processed);
+
+        assertThrows(PaymentProcessingException.class, () -> idempotencyService.execute(CUSTOMER_ID, KEY, request,
+                () -> processed, payment -> {
+                }));
+
+        Mockito.verify(idempotencyRecordRepository).release(SCOPED_KEY);
+        Mockito.verify(idempotencyRecordRepository, Mockito.never()).complete(anyString(), anyString());
+    }
+
+    @Test
+    void shouldReportBoundPaymentUnderReviewAsConflictWithoutStoringIt() {
+        processed.setStatus(PaymentStatus.NEEDS_REVIEW);
+        bindPendingKeyTo(processed);
+
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyService.execute(CUSTOMER_ID, KEY, request,
+                () -> processed, payment -> {
+                }));
+
+        Mockito.verify(messageUtil).getIdempotencyKeyUnderReviewMessage(KEY);
+        Mockito.verify(idempotencyRecordRepository, Mockito.never()).release(anyString());
+        Mockito.verify(idempotencyRecordRepository, Mockito.never()).complete(anyString(), anyString());
+    }
+
+    @Test
+    void shouldStoreBoundPaymentOnceItSucceeded() {
+        bindPendingKeyTo(processed);
+
+        Payment replayed = idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> {
+            throw new AssertionError("must not run");
+        }, payment -> {
+        });
+
+        assertSame(processed, replayed);
+        Mockito.verify(idempotencyRecordRepository).complete(Mockito.eq(SCOPED_KEY), anyString());
+        Mockito.verify(idempotencyRecordRepository, Mockito.never()).release(anyString());
+    }
+
+    @Test
+    void shouldNotChargeAgainWhenRetriedAfterGatewayTimeout() {
+        String hash = IdempotencyServiceImpl.fingerprint(CUSTOMER_ID, request);
+        processed.setStatus(PaymentStatus.PENDING);
+        Mockito.when(idempotencyRecordRepository.claim(SCOPED_KEY, hash)).thenReturn(1, 0, 0);
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicInteger charged = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> {
+            recorded.incrementAndGet();
+            return processed;
+        }, payment -> {
+            charged.incrementAndGet();
+            throw new IllegalStateException("Read timed out");
+        }));
+
+        Mockito.verify(idempotencyRecordRepository).bindPayment(SCOPED_KEY, 7L);
+        Mockito.verify(idempotencyRecordRepository, Mockito.never()).release(anyString());
+        IdempotencyRecord bound = new IdempotencyRecord(SCOPED_KEY, hash, IdempotencyStatus.IN_PROGRESS, null);
+        bound.setPaymentId(7L);
+        Mockito.when(idempotencyRecordRepository.findById(SCOPED_KEY)).thenReturn(Optional.of(bound));
+        Mockito.when(paymentRepository.findWithCustomerById(7L)).thenReturn(Optional.of(processed));
+
+        // Still pending: the retry is told to come back instead of recording and charging a second payment.
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> {
+            recorded.incrementAndGet();
+            return processed;
+        }, payment -> charged.incrementAndGet()));
+
+        // Settled by the sweeper: the retry replays that payment.
+        processed.setStatus(PaymentStatus.SUCCEEDED);
+        Payment replayed = idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> {
+            recorded.incrementAndGet();
+            return processed;
+        }, payment -> charged.incrementAndGet());
+
+        assertSame(processed, replayed);
+        assertEquals(1, recorded.get());
+        assertEquals(1, charged.get());
+        Mockito.verify(idempotencyRecordRepository).complete(Mockito.eq(SCOPED_KEY), anyString());
+    }
+
+    @Test
+    void shouldMakeConcurrentDuplicateWaitForInFlightResult() throws Exception {
+        Mockito.when(idempotencyRecordRepository.claim(Mockito.eq(SCOPED_KEY), anyString())).thenReturn(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<Payment> first = CompletableFuture.supplyAsync(() -> idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            awaitQuietly(release);
+            return processed;
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Payment> duplicate = CompletableFuture.supplyAsync(() -> idempotencyService.execute(CUSTOMER_ID, KEY, request, () -> {
+            runs.incrementAndGet();
+            return processed;
+        }));
+        release.countDown();
+
+        assertSame(processed, first.get(5, TimeUnit.SECONDS));
+        assertSame(processed, duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    private void bindPendingKeyTo(Payment payment) {
+        String hash = IdempotencyServiceImpl.fingerprint(CUSTOMER_ID, request);
+        IdempotencyRecord bound = new IdempotencyRecord(SCOPED_KEY, hash, IdempotencyStatus.IN_PROGRESS, null);
+        bound.setPaymentId(payment.getId());
+        Mockito.when(idempotencyRecordRepository.claim(SCOPED_KEY, hash)).thenReturn(0);
+        Mockito.when(idempotencyRecordRepository.findById(SCOPED_KEY)).thenReturn(Optional.of(bound));
+        Mockito.when(paymentRepository.findWithCustomerById(payment.getId())).thenReturn(Optional.of(payment));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
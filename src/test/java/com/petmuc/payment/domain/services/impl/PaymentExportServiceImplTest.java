@@ -0,0 +1,82 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.domain.models.PaymentExport;
+import com.petmuc.payment.domain.repositories.PaymentExportRepository;
+import com.petmuc.payment.exception.ValidationException;
+import com.petmuc.payment.utils.MessageUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentExportServiceImplTest {
+
+    @Mock
+    private PaymentExportRepository paymentExportRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    private PaymentExportServiceImpl paymentExportService;
+
+    @BeforeEach
+    void setUp() {
+        paymentExportService = new PaymentExportServiceImpl(paymentExportRepository, transactionManager, messageUtil);
+    }
+
+    @Test
+    void shouldRejectAnEmptyRangeBeforeReadingAnything() {
+        LocalDate day = LocalDate.of(2024, 11, 1);
+        Mockito.when(messageUtil.getInvalidExportRangeMessage(day, day)).thenReturn("empty range");
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> paymentExportService.exportPayments(day, day));
+
+        assertEquals("empty range", exception.getMessage());
+        Mockito.verifyNoInteractions(paymentExportRepository, transactionManager);
+    }
+
+    @Test
+    void shouldCopyInAReadOnlyTransactionWhenWritten() throws IOException {
+        LocalDate from = LocalDate.of(2024, 11, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mockito.when(paymentExportRepository.copyPayments(from, null, out)).thenReturn(42L);
+
+        PaymentExport export = paymentExportService.exportPayments(from, null);
+        Mockito.verifyNoInteractions(paymentExportRepository);
+
+        assertEquals(42L, export.writeTo(out));
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        Mockito.verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+    }
+
+    @Test
+    void shouldRethrowTheStreamFailure() {
+        IOException clientGone = new IOException("Broken pipe");
+        Mockito.when(paymentExportRepository.copyPayments(any(), any(), any())).thenThrow(new UncheckedIOException(clientGone));
+
+        PaymentExport export = paymentExportService.exportPayments(null, null);
+
+        assertSame(clientGone, assertThrows(IOException.class, () -> export.writeTo(new ByteArrayOutputStream())));
+    }
+}
@@ -0,0 +1,131 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.api.dtos.PaymentPage;
+import com.petmuc.payment.api.dtos.PaymentView;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.repositories.CustomerRepository;
+import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.utils.PaymentCursor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pages deep into a customer's history. Every ten payments share a timestamp, so the id tie-break matters, and other
+ * customers' payments make the history index the only cheap path to a deep page.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.sql.init.mode=always")
+class PaymentKeysetPagingIT {
+
+    private static final int PAYMENTS = 2_000;
+    private static final int OTHER_PAYMENTS = 20_000;
+    private static final int PAGE_SIZE = 100;
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(new Customer(null, "John Doe", UUID.randomUUID() + "@hellomail.com"));
+        Customer other = customerRepository.save(new Customer(null, "Jane Doe", UUID.randomUUID() + "@hellomail.com"));
+        insertPayments(customer.getId(), PAYMENTS);
+        insertPayments(other.getId(), OTHER_PAYMENTS);
+        jdbcTemplate.execute("ANALYZE payments");
+    }
+
+    @Test
+    void shouldVisitEveryPaymentOnceInHistoryOrder() {
+        List<PaymentView> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaymentPage page = paymentService.getPaymentsByCustomerId(customer.getId(), cursor, PAGE_SIZE);
+            visited.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(visited).hasSize(PAYMENTS);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < visited.size(); i++) {
+            assertThat(ids.add(visited.get(i).id())).isTrue();
+            if (i > 0) {
+                PaymentView previous = visited.get(i - 1);
+                PaymentView current = visited.get(i);
+                assertThat(current.paymentDate().isBefore(previous.paymentDate())
+                        || current.paymentDate().isEqual(previous.paymentDate()) && current.id() < previous.id()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void shouldSeekDeepPagesThroughTheHistoryIndex() {
+        PaymentCursor deep = jdbcTemplate.queryForObject("SELECT id, payment_date FROM payments WHERE customer_id = ?"
+                        + " ORDER BY payment_date DESC, id DESC OFFSET ? LIMIT 1",
+                (rs, row) -> new PaymentCursor(rs.getTimestamp("payment_date").toLocalDateTime(), rs.getLong("id")),
+                customer.getId(), PAYMENTS - PAGE_SIZE);
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS)"
+                        + " SELECT p.id FROM payments p JOIN customers c ON c.id = p.customer_id"
+                        + " WHERE p.customer_id = ? AND (p.payment_date, p.id) < (?, ?)"
+                        + " ORDER BY p.payment_date DESC, p.id DESC LIMIT ?",
+                String.class, customer.getId(), Timestamp.valueOf(deep.paymentDate()), deep.id(), PAGE_SIZE + 1));
+
+        assertThat(plan).contains("Index").contains("ROW(payment_date, id) < ROW(");
+        assertThat(plan).doesNotContain("Sort Method").doesNotContain("Rows Removed by Filter");
+
+        PaymentPage page = paymentService.getPaymentsByCustomerId(customer.getId(), deep.encode(), PAGE_SIZE);
+        assertThat(page.items()).hasSize(PAGE_SIZE - 1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    private void insertPayments(Long customerId, int count) {
+        LocalDateTime newest = LocalDateTime.now().withNano(0);
+        jdbcTemplate.update("INSERT INTO payments (method, amount, customer_id, payment_date, reference, status)"
+                        + " SELECT 'CARD', 10, ?, ? - (g / 10) * INTERVAL '1 millisecond', md5(random()::text), 'SUCCEEDED'"
+                        + " FROM generate_series(0, ? - 1) g",
+                customerId, Timestamp.valueOf(newest), count);
+    }
+}
@@ -0,0 +1,69 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.repositories.PaymentPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentPartitionServiceImplTest {
+
+    @Mock
+    private PaymentPartitionRepository paymentPartitionRepository;
+
+    private final PaymentProperties paymentProperties = new PaymentProperties();
+
+    private PaymentPartitionServiceImpl paymentPartitionService;
+
+    @BeforeEach
+    void setUp() {
+        paymentProperties.getPartitioning().setPremakeMonths(2);
+        paymentPartitionService = new PaymentPartitionServiceImpl(paymentPartitionRepository, paymentProperties);
+    }
+
+    @Test
+    void shouldCreateTheCurrentAndUpcomingMonthsThatAreMissing() {
+        Mockito.when(paymentPartitionRepository.findPartitions()).thenReturn(List.of("payments_p2024_11"));
+
+        paymentPartitionService.maintainPartitions(YearMonth.of(2024, 11));
+
+        Mockito.verify(paymentPartitionRepository).createPartition("payments_p2024_12", LocalDate.of(2024, 12, 1), LocalDate.of(2025, 1, 1));
+        Mockito.verify(paymentPartitionRepository).createPartition("payments_p2025_01", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1));
+        Mockito.verify(paymentPartitionRepository, Mockito.never()).createPartition(Mockito.eq("payments_p2024_11"), any(), any());
+        Mockito.verify(paymentPartitionRepository, Mockito.never()).detachPartition(anyString());
+    }
+
+    @Test
+    void shouldDetachOnlyPartitionsOlderThanTheRetention() {
+        paymentProperties.getPartitioning().setRetentionMonths(12);
+        Mockito.when(paymentPartitionRepository.findPartitions()).thenReturn(List.of(
+                "payments_p2023_10", "payments_p2023_11", "payments_p2024_11", "payments_p2024_12", "payments_p2025_01",
+                "payments_archive"));
+
+        paymentPartitionService.maintainPartitions(YearMonth.of(2024, 11));
+
+        Mockito.verify(paymentPartitionRepository).detachPartition("payments_p2023_10");
+        Mockito.verify(paymentPartitionRepository, Mockito.times(1)).detachPartition(anyString());
+        Mockito.verify(paymentPartitionRepository, Mockito.never()).createPartition(anyString(), any(), any());
+    }
+
+    @Test
+    void shouldRoundTripPartitionNames() {
+        assertEquals("payments_p2025_03", PaymentPartitionServiceImpl.partitionName(YearMonth.of(2025, 3)));
+        assertEquals(YearMonth.of(2025, 3), PaymentPartitionServiceImpl.partitionMonth("payments_p2025_03"));
+        assertNull(PaymentPartitionServiceImpl.partitionMonth("payments_default"));
+    }
+}
@@ -0,0 +1,162 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import com.petmuc.payment.domain.repositories.CustomerRepository;
+import com.petmuc.payment.domain.repositories.PaymentPartitionRepository;
+import com.petmuc.payment.domain.repositories.PaymentRepository;
+import com.petmuc.payment.domain.services.PaymentPartitionService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs against the partitioned payments table: the partitions made at startup, where rows land, detaching expired
+ * months, and that settling a payment by id and payment date only touches its own month.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"spring.sql.init.mode=always", "payment.partitioning.retention-months=" + PaymentPartitioningIT.RETENTION_MONTHS})
+class PaymentPartitioningIT {
+
+    static final int RETENTION_MONTHS = 24;
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private PaymentPartitionService paymentPartitionService;
+
+    @Autowired
+    private PaymentPartitionRepository paymentPartitionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(new Customer(null, "John Doe", UUID.randomUUID() + "@hellomail.com"));
+    }
+
+    @Test
+    void shouldCreateCurrentAndPremadeMonthsAtStartup() {
+        YearMonth currentMonth = YearMonth.now();
+
+        assertThat(paymentPartitionRepository.findPartitions()).contains(
+                PaymentPartitionServiceImpl.partitionName(currentMonth),
+                PaymentPartitionServiceImpl.partitionName(currentMonth.plusMonths(3)));
+    }
+
+    @Test
+    void shouldCreateMissingMonthsWhenMaintenanceRunsAgain() {
+        YearMonth later = YearMonth.now().plusMonths(12);
+
+        paymentPartitionService.maintainPartitions(later);
+        paymentPartitionService.maintainPartitions(later);
+
+        assertThat(paymentPartitionRepository.findPartitions()).contains(
+                PaymentPartitionServiceImpl.partitionName(later),
+                PaymentPartitionServiceImpl.partitionName(later.plusMonths(3)));
+    }
+
+    @Test
+    void shouldStorePaymentsInTheirMonthsPartition() {
+        Payment current = save(LocalDateTime.now());
+
+        assertThat(partitionOf(current)).isEqualTo(PaymentPartitionServiceImpl.partitionName(YearMonth.now()));
+        assertThrows(DataAccessException.class, () -> save(LocalDateTime.of(1999, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void shouldDetachExpiredPartitionsAndKeepThemAsTables() {
+        YearMonth expired = YearMonth.now().minusMonths(RETENTION_MONTHS + 1);
+        String name = PaymentPartitionServiceImpl.partitionName(expired);
+        paymentPartitionRepository.createPartition(name, expired.atDay(1), expired.plusMonths(1).atDay(1));
+        save(expired.atDay(15).atStartOfDay());
+
+        paymentPartitionService.maintainPartitions(YearMonth.now());
+
+        assertThat(paymentPartitionRepository.findPartitions()).doesNotContain(name)
+                .contains(PaymentPartitionServiceImpl.partitionName(YearMonth.now()));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM payments WHERE payment_date >= ? AND payment_date < ?",
+                Long.class, expired.atDay(1), expired.plusMonths(1).atDay(1))).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM " + name, Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldPruneStatusTransitionToThePaymentsPartition() {
+        Payment payment = save(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN UPDATE payments SET status = 'SUCCEEDED'"
+                        + " WHERE id = ? AND payment_date = ? AND status = 'PENDING'",
+                String.class, payment.getId(), Timestamp.valueOf(payment.getPaymentDate())));
+
+        assertThat(plan).contains(PaymentPartitionServiceImpl.partitionName(YearMonth.now()))
+                .doesNotContain(PaymentPartitionServiceImpl.partitionName(YearMonth.now().plusMonths(1)));
+
+        Integer transitioned = new TransactionTemplate(transactionManager).execute(status -> paymentRepository.transitionStatus(
+                payment.getId(), payment.getPaymentDate(), PaymentStatus.PENDING, PaymentStatus.SUCCEEDED));
+
+        assertThat(transitioned).isEqualTo(1);
+        assertThat(paymentRepository.findById(payment.getId())).get()
+                .extracting(Payment::getStatus).isEqualTo(PaymentStatus.SUCCEEDED);
+    }
+
+    private Payment save(LocalDateTime paymentDate) {
+        Payment payment = new Payment("CARD", BigDecimal.TEN, customer, paymentDate, UUID.randomUUID().toString());
+        payment.setStatus(PaymentStatus.PENDING);
+        return paymentRepository.save(payment);
+    }
+
+    private String partitionOf(Payment payment) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM payments WHERE id = ?",
+                String.class, payment.getId());
+    }
+}
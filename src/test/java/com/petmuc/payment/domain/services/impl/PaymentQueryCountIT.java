@@ -0,0 +1,92 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.api.dtos.PaymentPage;
+import com.petmuc.payment.api.dtos.PaymentView;
+import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import com.petmuc.payment.domain.repositories.CustomerRepository;
+import com.petmuc.payment.domain.repositories.PaymentRepository;
+import com.petmuc.payment.domain.services.PaymentService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.petmuc.payment.utils.QueryCountAssertions.assertMaxStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of statements the payment history reads issue, so a change that loads each payment's customer
+ * separately fails here instead of in production.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.sql.init.mode=always")
+class PaymentQueryCountIT {
+
+    private static final int PAYMENTS = 5;
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private Customer customer;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(new Customer(null, "John Doe", UUID.randomUUID() + "@hellomail.com"));
+        for (int i = 0; i < PAYMENTS; i++) {
+            Payment payment = new Payment("CARD", BigDecimal.TEN, customer, LocalDateTime.now().minusMinutes(i),
+                    UUID.randomUUID().toString());
+            payment.setStatus(PaymentStatus.SUCCEEDED);
+            paymentRepository.save(payment);
+        }
+    }
+
+    @Test
+    void shouldReadAllPaymentsOfACustomerInOneStatement() {
+        List<PaymentView> payments = assertMaxStatements(1, () -> paymentService.getPaymentsByCustomerId(customer.getId()));
+
+        assertThat(payments).hasSize(PAYMENTS);
+    }
+
+    @Test
+    void shouldReadAPageOfPaymentsInOneStatement() {
+        PaymentPage page = assertMaxStatements(1, () -> paymentService.getPaymentsByCustomerId(customer.getId(), null, 2));
+
+        assertThat(page.items()).hasSize(2);
+    }
+}
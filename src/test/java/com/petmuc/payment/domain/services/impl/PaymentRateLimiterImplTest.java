@@ -0,0 +1,165 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.exception.RateLimitExceededException;
+import com.petmuc.payment.utils.MessageUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentRateLimiterImplTest {
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    private final AtomicLong now = new AtomicLong();
+    private PaymentProperties paymentProperties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        paymentProperties = new PaymentProperties();
+        paymentProperties.getRateLimit().setPaymentsPerSecond(10);
+        paymentProperties.getRateLimit().setBurst(3);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldAllowABurstThenRejectWithTheTimeUntilTheNextPayment() {
+        Mockito.when(messageUtil.getRateLimitExceededMessage(1L)).thenReturn("too many");
+        PaymentRateLimiterImpl limiter = limiter();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(1L);
+        }
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class, () -> limiter.acquire(1L));
+
+        assertEquals("too many", rejected.getMessage());
+        assertEquals(Duration.ofMillis(60), rejected.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("payment.rate_limit.rejections").counter().count());
+    }
+
+    @Test
+    void shouldRefillAtTheConfiguredRate() {
+        Mockito.when(messageUtil.getRateLimitExceededMessage(1L)).thenReturn("too many");
+        PaymentRateLimiterImpl limiter = limiter();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(1L);
+        }
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        limiter.acquire(1L);
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(1L));
+    }
+
+    @Test
+    void shouldChargeABatchForEveryPayment() {
+        Mockito.when(messageUtil.getRateLimitExceededMessage(1L)).thenReturn("too many");
+        PaymentRateLimiterImpl limiter = limiter();
+
+        limiter.acquire(1L, 2);
+        limiter.acquire(1L);
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(1L));
+    }
+
+    @Test
+    void shouldAdmitABatchLargerThanTheBurstOnlyWithAFullAllowance() {
+        Mockito.when(messageUtil.getRateLimitExceededMessage(1L)).thenReturn("too many");
+        PaymentRateLimiterImpl limiter = limiter();
+        limiter.acquire(1L);
+
+        RateLimitExceededException early = assertThrows(RateLimitExceededException.class, () -> limiter.acquire(1L, 10));
+        assertEquals(Duration.ofMillis(100), early.getRetryAfter());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        limiter.acquire(1L, 10);
+
+        RateLimitExceededException indebted = assertThrows(RateLimitExceededException.class, () -> limiter.acquire(1L));
+        assertEquals(Duration.ofMillis(800), indebted.getRetryAfter());
+    }
+
+    @Test
+    void shouldKeepTheDebtOfABatchWhileTheCustomerIsIdle() {
+        Mockito.when(messageUtil.getRateLimitExceededMessage(1L)).thenReturn("too many");
+        PaymentRateLimiterImpl limiter = limiter();
+        limiter.acquire(1L, 50);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(1L));
+    }
+
+    @Test
+    void shouldLimitEachCustomerSeparately() {
+        PaymentRateLimiterImpl limiter = limiter();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(1L);
+        }
+
+        assertDoesNotThrow(() -> limiter.acquire(2L));
+    }
+
+    @Test
+    void shouldAllowExactlyTheBurstUnderContention() throws Exception {
+        Mockito.when(messageUtil.getRateLimitExceededMessage(1L)).thenReturn("too many");
+        paymentProperties.getRateLimit().setBurst(50);
+        PaymentRateLimiterImpl limiter = limiter();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                attempts.add(callers.submit(() -> {
+                    try {
+                        limiter.acquire(1L);
+                        return true;
+                    } catch (RateLimitExceededException e) {
+                        return false;
+                    }
+                }));
+            }
+            int allowed = 0;
+            for (Future<Boolean> attempt : attempts) {
+                allowed += attempt.get() ? 1 : 0;
+            }
+            assertEquals(50, allowed);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldAllowEverythingWhenDisabled() {
+        paymentProperties.getRateLimit().setEnabled(false);
+        PaymentRateLimiterImpl limiter = limiter();
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(1L);
+        }
+        Mockito.verifyNoInteractions(messageUtil);
+    }
+
+    private PaymentRateLimiterImpl limiter() {
+        return new PaymentRateLimiterImpl(paymentProperties, messageUtil, meterRegistry, now::get);
+    }
+}
@@ -1,11 +1,30 @@
 package com.petmuc.payment.domain.services.impl;
 
+import com.petmuc.payment.adapter.clients.PaymentGateway;
+import com.petmuc.payment.api.dtos.PaymentBatchItemResult;
+import com.petmuc.payment.api.dtos.PaymentPage;
+import com.petmuc.payment.api.dtos.PaymentRequest;
+import com.petmuc.payment.api.dtos.PaymentResponse;
+import com.petmuc.payment.api.dtos.PaymentView;
+import com.petmuc.payment.api.dtos.ReversalRequest;
+import com.petmuc.payment.api.dtos.ReversalResponse;
+import com.petmuc.payment.config.PaymentProperties;
 import com.petmuc.payment.domain.models.Customer;
+import com.petmuc.payment.domain.models.CustomerPaymentSummary;
 import com.petmuc.payment.domain.models.Payment;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import com.petmuc.payment.domain.repositories.CustomerPaymentSummaryRepository;
 import com.petmuc.payment.domain.repositories.PaymentRepository;
+import com.petmuc.payment.domain.services.CustomerService;
 import com.petmuc.payment.exception.CustomerNotFoundException;
+import com.petmuc.payment.exception.GatewayUnavailableException;
 import com.petmuc.payment.exception.PaymentNotFoundException;
+import com.petmuc.payment.exception.PaymentProcessingException;
+import com.petmuc.payment.exception.ReversalProcessingException;
 import com.petmuc.payment.exception.ServiceException;
+import com.petmuc.payment.exception.ValidationException;
+import com.petmuc.payment.utils.MessageUtil;
+import com.petmuc.payment.utils.PaymentCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -13,30 +32,56 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.ArgumentMatchers.eq;
 
 @ExtendWith(MockitoExtension.class)
 public class PaymentServiceImplTest {
 
+    @Mock
+    private MessageUtil messageUtil;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private CustomerService customerService;
+
     @Mock
     private PaymentRepository paymentRepository;
 
-    @InjectMocks
-    private PaymentServiceImpl paymentService;
+    @Mock
+    private CustomerPaymentSummaryRepository summaryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private PaymentProperties paymentProperties = new PaymentProperties();
 
     @InjectMocks
-    private CustomerServiceImpl customerService;
+    private PaymentServiceImpl paymentService;
 
 
     @Nested
@@ -60,15 +105,91 @@ public class PaymentServiceImplTest {
         void shouldMakePaymentSuccessfully() {
 
             Mockito.when(customerService.getCustomerById(customerId)).thenReturn(customer);
-            Mockito.when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+            Mockito.when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+                Payment saved = invocation.getArgument(0);
+                saved.setId(paymentId);
+                return saved;
+            });
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class)))
+                    .thenReturn(new ResponseEntity<>(new PaymentResponse(true, "OK"), HttpStatus.CREATED));
+            Mockito.when(paymentRepository.transitionStatus(eq(paymentId), any(), eq(PaymentStatus.PENDING), eq(PaymentStatus.SUCCEEDED))).thenReturn(1);
 
             Payment paid = paymentService.makePayment(customerId, payment);
 
             assertEquals(paid.getAmount(), payment.getAmount());
             assertEquals(paid.getCustomer(), customer);
+            assertEquals(PaymentStatus.SUCCEEDED, paid.getStatus());
+            assertNotNull(paid.getPaymentDate());
             Mockito.verify(customerService, Mockito.times(1)).getCustomerById(customerId);
             Mockito.verify(paymentRepository, Mockito.times(1)).save(any(Payment.class));
+            Mockito.verify(paymentRepository, Mockito.times(1))
+                    .transitionStatus(paymentId, paid.getPaymentDate(), PaymentStatus.PENDING, PaymentStatus.SUCCEEDED);
+            Mockito.verify(summaryRepository).recordPayments(customerId, 1, payment.getAmount(), paid.getPaymentDate());
+            Mockito.verify(transactionManager, Mockito.times(2)).commit(any());
+        }
+
+        @Test
+        void shouldNotCountPaymentTwiceWhenItWasSettledConcurrently() {
+
+            Mockito.when(customerService.getCustomerById(customerId)).thenReturn(customer);
+            Mockito.when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+                Payment saved = invocation.getArgument(0);
+                saved.setId(paymentId);
+                return saved;
+            });
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class)))
+                    .thenReturn(new ResponseEntity<>(new PaymentResponse(true, "OK"), HttpStatus.CREATED));
+            Mockito.when(paymentRepository.transitionStatus(eq(paymentId), any(), eq(PaymentStatus.PENDING), eq(PaymentStatus.SUCCEEDED))).thenReturn(0);
+
+            paymentService.makePayment(customerId, payment);
+
+            Mockito.verifyNoInteractions(summaryRepository);
+        }
+
+        @Test
+        void shouldMarkPaymentFailedWhenGatewayDeclinesPayment() {
+
+            Mockito.when(customerService.getCustomerById(customerId)).thenReturn(customer);
+            Mockito.when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+                Payment saved = invocation.getArgument(0);
+                saved.setId(paymentId);
+                return saved;
+            });
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class)))
+                    .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+            assertThrows(PaymentProcessingException.class, () -> paymentService.makePayment(customerId, payment));
+
+            assertEquals(PaymentStatus.FAILED, payment.getStatus());
+            Mockito.verify(paymentRepository, Mockito.times(1))
+                    .transitionStatus(eq(paymentId), any(), eq(PaymentStatus.PENDING), eq(PaymentStatus.FAILED));
+            Mockito.verifyNoInteractions(summaryRepository);
+        }
+
+        @Test
+        void shouldLeavePaymentPendingWhenGatewayCallFails() {
+
+            Mockito.when(customerService.getCustomerById(customerId)).thenReturn(customer);
+            Mockito.when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class))).thenThrow(new IllegalStateException("timeout"));
+
+            assertThrows(IllegalStateException.class, () -> paymentService.makePayment(customerId, payment));
+
+            assertEquals(PaymentStatus.PENDING, payment.getStatus());
+            Mockito.verify(paymentRepository, Mockito.never()).transitionStatus(any(), any(), any(), any());
+        }
+
+        @Test
+        void shouldLeavePaymentPendingWhenGatewayIsUnavailable() {
 
+            Mockito.when(customerService.getCustomerById(customerId)).thenReturn(customer);
+            Mockito.when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class))).thenThrow(new GatewayUnavailableException("circuit open"));
+
+            assertThrows(GatewayUnavailableException.class, () -> paymentService.makePayment(customerId, payment));
+
+            assertEquals(PaymentStatus.PENDING, payment.getStatus());
+            Mockito.verify(paymentRepository, Mockito.never()).transitionStatus(any(), any(), any(), any());
         }
 
         @Test
@@ -76,15 +197,15 @@ public class PaymentServiceImplTest {
 
             Payment request = payment;
             request.setCustomer(null);
-            Mockito.when(customerService.getCustomerById(customerId)).thenReturn(nullable(any()));
+            Mockito.when(customerService.getCustomerById(customerId)).thenThrow(new CustomerNotFoundException("not found"));
             assertThrows(CustomerNotFoundException.class, () -> paymentService.makePayment(customerId, request));
             Mockito.verify(customerService, Mockito.times(1)).getCustomerById(customerId);
             Mockito.verify(paymentRepository, Mockito.times(0)).save(any(Payment.class));
+            Mockito.verifyNoInteractions(paymentGateway);
         }
 
         @Test
         void shouldThrowServiceExceptionWhenMakingPaymentWithInexistentCustomerAndFail() {
-            //fails
             Payment request = payment;
             request.setCustomer(null);
             Mockito.when(customerService.getCustomerById(customerId)).thenReturn(customer);
@@ -92,50 +213,333 @@ public class PaymentServiceImplTest {
             assertThrows(ServiceException.class, () -> paymentService.makePayment(customerId, request));
             Mockito.verify(customerService, Mockito.times(1)).getCustomerById(customerId);
             Mockito.verify(paymentRepository, Mockito.times(1)).save(any(Payment.class));
+            Mockito.verifyNoInteractions(paymentGateway);
+        }
+
+        @Test
+        void shouldMakeBatchOfPaymentsWithSingleCustomerLookup() {
+
+            List<Payment> batch = List.of(
+                    new Payment("VISA", new BigDecimal("10.00"), null, null),
+                    new Payment("VISA", new BigDecimal("20.00"), null, null),
+                    new Payment("PayPal", new BigDecimal("30.00"), null, null));
+            Mockito.when(customerService.getCustomerById(customerId)).thenReturn(customer);
+            Mockito.when(paymentRepository.saveAll(batch)).thenAnswer(invocation -> {
+                long id = 100;
+                for (Payment saved : batch) {
+                    saved.setId(id++);
+                }
+                return batch;
+            });
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class)))
+                    .thenReturn(new ResponseEntity<>(new PaymentResponse(true, "OK"), HttpStatus.CREATED))
+                    .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST))
+                    .thenReturn(new ResponseEntity<>(new PaymentResponse(true, "OK"), HttpStatus.CREATED));
+            Mockito.when(paymentRepository.transitionStatuses(eq(List.of(100L, 102L)), any(), eq(PaymentStatus.PENDING), eq(PaymentStatus.SUCCEEDED)))
+                    .thenReturn(2);
+
+            List<PaymentBatchItemResult> results = paymentService.makePayments(customerId, batch);
+
+            assertEquals(3, results.size());
+            assertEquals(PaymentStatus.SUCCEEDED, results.get(0).status());
+            assertEquals(PaymentStatus.FAILED, results.get(1).status());
+            assertEquals(PaymentStatus.SUCCEEDED, results.get(2).status());
+            assertEquals(101L, results.get(1).paymentId());
+            Mockito.verify(customerService, Mockito.times(1)).getCustomerById(customerId);
+            Mockito.verify(paymentRepository, Mockito.times(1))
+                    .transitionStatuses(List.of(100L, 102L), batch.get(0).getPaymentDate(), PaymentStatus.PENDING, PaymentStatus.SUCCEEDED);
+            Mockito.verify(paymentRepository, Mockito.times(1))
+                    .transitionStatuses(List.of(101L), batch.get(0).getPaymentDate(), PaymentStatus.PENDING, PaymentStatus.FAILED);
+            Mockito.verify(summaryRepository).recordPayments(eq(customerId), eq(2L), eq(new BigDecimal("40.00")), any(LocalDateTime.class));
+            Mockito.verify(summaryRepository, Mockito.never()).rebuild(any());
+        }
+
+        @Test
+        void shouldRebuildSummaryWhenSomeBatchPaymentsWereSettledElsewhere() {
+
+            List<Payment> batch = List.of(
+                    new Payment("VISA", new BigDecimal("10.00"), null, null),
+                    new Payment("VISA", new BigDecimal("20.00"), null, null));
+            Mockito.when(customerService.getCustomerById(customerId)).thenReturn(customer);
+            Mockito.when(paymentRepository.saveAll(batch)).thenAnswer(invocation -> {
+                long id = 100;
+                for (Payment saved : batch) {
+                    saved.setId(id++);
+                }
+                return batch;
+            });
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class)))
+                    .thenReturn(new ResponseEntity<>(new PaymentResponse(true, "OK"), HttpStatus.CREATED));
+            Mockito.when(paymentRepository.transitionStatuses(eq(List.of(100L, 101L)), any(), eq(PaymentStatus.PENDING), eq(PaymentStatus.SUCCEEDED)))
+                    .thenReturn(1);
+
+            paymentService.makePayments(customerId, batch);
+
+            Mockito.verify(summaryRepository).rebuild(customerId);
+            Mockito.verify(summaryRepository, Mockito.never()).recordPayments(any(), Mockito.anyLong(), any(), any());
+        }
+
+        @Test
+        void shouldLeaveBatchPaymentsPendingWhenGatewayIsUnavailable() {
+
+            List<Payment> batch = List.of(
+                    new Payment("VISA", new BigDecimal("10.00"), null, null),
+                    new Payment("VISA", new BigDecimal("20.00"), null, null));
+            Mockito.when(customerService.getCustomerById(customerId)).thenReturn(customer);
+            Mockito.when(paymentRepository.saveAll(batch)).thenAnswer(invocation -> {
+                long id = 100;
+                for (Payment saved : batch) {
+                    saved.setId(id++);
+                }
+                return batch;
+            });
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class))).thenThrow(new GatewayUnavailableException("busy"));
+
+            List<PaymentBatchItemResult> results = paymentService.makePayments(customerId, batch);
+
+            assertEquals(PaymentStatus.PENDING, results.get(0).status());
+            assertEquals(PaymentStatus.PENDING, results.get(1).status());
+            Mockito.verify(paymentRepository, Mockito.never()).transitionStatuses(any(), any(), any(), any());
+            Mockito.verifyNoInteractions(summaryRepository);
+        }
+
+        @Test
+        void shouldRejectBatchLargerThanConfiguredMaximum() {
+
+            paymentProperties.getBatch().setMaxItems(1);
+            List<Payment> batch = List.of(payment, new Payment("VISA", new BigDecimal("20.00"), null, null));
+
+            assertThrows(ValidationException.class, () -> paymentService.makePayments(customerId, batch));
+            Mockito.verifyNoInteractions(customerService, paymentRepository, paymentGateway);
+        }
+
+        @Test
+        void shouldSettleStalePendingPayments() {
+
+            Payment stale = new Payment(paymentId, "VISA", new BigDecimal("10.00"), customer, reference);
+            stale.setStatus(PaymentStatus.PENDING);
+            stale.setPaymentDate(LocalDateTime.now().minusMinutes(10));
+            Mockito.when(paymentRepository.findByStatusAndNextAttemptAtLessThanEqual(eq(PaymentStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                    .thenReturn(List.of(stale));
+            Mockito.when(paymentGateway.payment(new PaymentRequest(reference, customerId, 10.00)))
+                    .thenReturn(new ResponseEntity<>(new PaymentResponse(true, "OK"), HttpStatus.CREATED));
+
+            int settled = paymentService.recoverPendingPayments(50);
+
+            assertEquals(1, settled);
+            assertEquals(PaymentStatus.SUCCEEDED, stale.getStatus());
+            Mockito.verify(paymentRepository, Mockito.times(1))
+                    .transitionStatus(eq(paymentId), any(), eq(PaymentStatus.PENDING), eq(PaymentStatus.SUCCEEDED));
+        }
+
+        @Test
+        void shouldStopRecoveryAndKeepPaymentsPendingWhileGatewayIsUnavailable() {
+
+            Payment first = new Payment(paymentId, "VISA", new BigDecimal("10.00"), customer, reference);
+            first.setStatus(PaymentStatus.PENDING);
+            Payment second = new Payment(paymentId + 1, "VISA", new BigDecimal("20.00"), customer, "other-reference");
+            second.setStatus(PaymentStatus.PENDING);
+            Mockito.when(paymentRepository.findByStatusAndNextAttemptAtLessThanEqual(eq(PaymentStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                    .thenReturn(List.of(first, second));
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class))).thenThrow(new GatewayUnavailableException("circuit open"));
+
+            int settled = paymentService.recoverPendingPayments(50);
+
+            assertEquals(0, settled);
+            assertEquals(PaymentStatus.PENDING, first.getStatus());
+            Mockito.verify(paymentGateway, Mockito.times(1)).payment(any(PaymentRequest.class));
+            Mockito.verify(paymentRepository, Mockito.never()).transitionStatus(any(), any(), any(), any());
+        }
+
+        @Test
+        void shouldScheduleNextRecoveryAttemptWhenOutcomeIsStillUnknown() {
+
+            Payment stale = new Payment(paymentId, "VISA", new BigDecimal("10.00"), customer, reference);
+            stale.setStatus(PaymentStatus.PENDING);
+            stale.setPaymentDate(LocalDateTime.now().minusMinutes(10));
+            stale.setAttempts(2);
+            Mockito.when(paymentRepository.findByStatusAndNextAttemptAtLessThanEqual(eq(PaymentStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                    .thenReturn(List.of(stale));
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class))).thenThrow(new IllegalStateException("timeout"));
+
+            LocalDateTime before = LocalDateTime.now();
+            int settled = paymentService.recoverPendingPayments(50);
+
+            assertEquals(0, settled);
+            assertEquals(PaymentStatus.PENDING, stale.getStatus());
+            assertEquals(3, stale.getAttempts());
+            Duration delay = Duration.between(before, stale.getNextAttemptAt());
+            Duration ceiling = paymentProperties.getRecovery().getInitialBackoff().multipliedBy(4);
+            assertTrue(delay.compareTo(ceiling.dividedBy(2)) >= 0 && delay.compareTo(ceiling.plusSeconds(1)) <= 0, "delay " + delay);
+            Mockito.verify(paymentRepository).recordRecoveryAttempt(paymentId, stale.getPaymentDate(), PaymentStatus.PENDING, 3,
+                    stale.getNextAttemptAt());
+        }
+
+        @Test
+        void shouldParkPaymentForReviewAfterMaxRecoveryAttempts() {
+
+            paymentProperties.getRecovery().setMaxAttempts(3);
+            Payment stale = new Payment(paymentId, "VISA", new BigDecimal("10.00"), customer, reference);
+            stale.setStatus(PaymentStatus.PENDING);
+            stale.setPaymentDate(LocalDateTime.now().minusHours(2));
+            stale.setAttempts(2);
+            Mockito.when(paymentRepository.findByStatusAndNextAttemptAtLessThanEqual(eq(PaymentStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                    .thenReturn(List.of(stale));
+            Mockito.when(paymentGateway.payment(any(PaymentRequest.class))).thenThrow(new IllegalStateException("timeout"));
+
+            paymentService.recoverPendingPayments(50);
+
+            assertEquals(PaymentStatus.NEEDS_REVIEW, stale.getStatus());
+            Mockito.verify(paymentRepository).recordRecoveryAttempt(paymentId, stale.getPaymentDate(), PaymentStatus.NEEDS_REVIEW, 3, null);
         }
 
         @Test
         void shouldFindPaymentsByCustomerIdSuccessfully() {
 
-            List<Payment> payments = Arrays.asList(
-                    new Payment(1L,"VISA", new BigDecimal("12000.00"),customer,reference),
-                    new Payment(2L,"PayPal", new BigDecimal("5800.90"), customer,reference));
+            List<PaymentView> payments = Arrays.asList(
+                    view(1L, "VISA", new BigDecimal("12000.00"), null),
+                    view(2L, "PayPal", new BigDecimal("5800.90"), null));
 
-            Mockito.when(paymentRepository.findByCustomerId(customerId)).thenReturn(payments);
-            List<Payment> foundPayments = paymentService.getPaymentsByCustomerId(customerId);
+            Mockito.when(paymentRepository.findViewsByCustomerId(customerId)).thenReturn(payments);
+            List<PaymentView> foundPayments = paymentService.getPaymentsByCustomerId(customerId);
             assertEquals(payments.size(), foundPayments.size());
-            Mockito.verify(paymentRepository, Mockito.times(1)).findByCustomerId(customerId);
+            Mockito.verify(paymentRepository, Mockito.times(1)).findViewsByCustomerId(customerId);
         }
 
         @Test
         void shouldNotFindPaymentsByCustomerIdWithNoPaymentsLinked() {
 
-            List<Payment> payments = List.of();
+            List<PaymentView> payments = List.of();
 
-            Mockito.when(paymentRepository.findByCustomerId(customerId)).thenReturn(payments);
-            List<Payment> foundPayments = paymentService.getPaymentsByCustomerId(customerId);
+            Mockito.when(paymentRepository.findViewsByCustomerId(customerId)).thenReturn(payments);
+            List<PaymentView> foundPayments = paymentService.getPaymentsByCustomerId(customerId);
             assertEquals(0, foundPayments.size());
-            Mockito.verify(paymentRepository, Mockito.times(1)).findByCustomerId(customerId);
+            Mockito.verify(paymentRepository, Mockito.times(1)).findViewsByCustomerId(customerId);
+        }
+
+
+        @Test
+        void shouldReturnFirstPageWithNextCursorWhenMorePaymentsExist() {
+
+            LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+            List<PaymentView> rows = List.of(paymentAt(30L, now), paymentAt(20L, now.minusDays(1)), paymentAt(10L, now.minusDays(2)));
+            Mockito.when(paymentRepository.findLatestByCustomerId(eq(customerId), any(Pageable.class))).thenReturn(rows);
+
+            PaymentPage page = paymentService.getPaymentsByCustomerId(customerId, null, 2);
+
+            assertEquals(2, page.items().size());
+            assertEquals(new PaymentCursor(now.minusDays(1), 20L), PaymentCursor.decode(page.nextCursor()));
+            Mockito.verify(paymentRepository).findLatestByCustomerId(customerId, PageRequest.ofSize(3));
         }
 
+        @Test
+        void shouldContinueFromCursorWithoutNextCursorOnLastPage() {
+
+            LocalDateTime date = LocalDateTime.of(2024, 5, 1, 12, 0);
+            String cursor = new PaymentCursor(date, 20L).encode();
+            Mockito.when(paymentRepository.findByCustomerIdBefore(eq(customerId), eq(date), eq(20L), any(Pageable.class)))
+                    .thenReturn(List.of(paymentAt(10L, date.minusDays(1))));
+
+            PaymentPage page = paymentService.getPaymentsByCustomerId(customerId, cursor, 2);
+
+            assertEquals(1, page.items().size());
+            assertNull(page.nextCursor());
+        }
+
+        @Test
+        void shouldRejectMalformedCursor() {
+
+            assertThrows(ValidationException.class, () -> paymentService.getPaymentsByCustomerId(customerId, "not-a-cursor", 10));
+            Mockito.verifyNoInteractions(paymentRepository);
+        }
+
+        private PaymentView paymentAt(Long id, LocalDateTime paymentDate) {
+            return view(id, "VISA", new BigDecimal("1.00"), paymentDate);
+        }
+
+        private PaymentView view(Long id, String method, BigDecimal amount, LocalDateTime paymentDate) {
+            return new PaymentView(id, method, amount, customer.getId(), customer.getName(), customer.getEmail(),
+                    paymentDate, reference, PaymentStatus.SUCCEEDED);
+        }
 
         @Test
         void shouldFindPaymentByIdSuccessfully() {
 
-            Mockito.when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(payment));
-            Payment foundPayment = paymentService.getPaymentById(paymentId);
+            Mockito.when(paymentRepository.findViewById(paymentId))
+                    .thenReturn(Optional.of(view(paymentId, "VISA", payment.getAmount(), null)));
+            PaymentView foundPayment = paymentService.getPaymentById(paymentId);
 
-            assertEquals(foundPayment.getAmount(), payment.getAmount());
-            assertEquals(foundPayment.getCustomer(), customer);
-            Mockito.verify(paymentRepository, Mockito.times(1)).findById(paymentId);
+            assertEquals(foundPayment.amount(), payment.getAmount());
+            assertEquals(customer.getEmail(), foundPayment.customer().email());
+            Mockito.verify(paymentRepository, Mockito.times(1)).findViewById(paymentId);
         }
 
         @Test
         void shouldThrowPaymentNotFoundExceptionWhenFindingPaymentById() {
 
-            Mockito.when(paymentRepository.findById(paymentId)).thenReturn(Optional.empty());
+            Mockito.when(paymentRepository.findViewById(paymentId)).thenReturn(Optional.empty());
             assertThrows(PaymentNotFoundException.class, () -> paymentService.getPaymentById(paymentId));
-            Mockito.verify(paymentRepository, Mockito.times(1)).findById(paymentId);
+            Mockito.verify(paymentRepository, Mockito.times(1)).findViewById(paymentId);
+        }
+
+        @Test
+        void shouldMarkPaymentReversedWhenGatewayAcceptsReversal() {
+
+            Mockito.when(paymentGateway.paymentReversal(any(ReversalRequest.class)))
+                    .thenReturn(new ResponseEntity<>(new ReversalResponse("rev-1", reference, true, 12000.00, "OK"), HttpStatus.CREATED));
+
+            LocalDateTime paymentDate = LocalDateTime.of(2024, 5, 31, 23, 59);
+            Mockito.when(paymentRepository.transitionStatus(paymentId, paymentDate, PaymentStatus.SUCCEEDED, PaymentStatus.REVERSED)).thenReturn(1);
+
+            paymentService.reversePayment(paymentId, paymentDate, reference, payment.getAmount());
+
+            Mockito.verify(paymentRepository).transitionStatus(paymentId, paymentDate, PaymentStatus.SUCCEEDED, PaymentStatus.REVERSED);
+            Mockito.verify(summaryRepository).recordReversal(paymentId, paymentDate, payment.getAmount());
+        }
+
+        @Test
+        void shouldLeavePaymentUntouchedWhenGatewayDeclinesReversal() {
+
+            Mockito.when(paymentGateway.paymentReversal(any(ReversalRequest.class)))
+                    .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+            assertThrows(ReversalProcessingException.class,
+                    () -> paymentService.reversePayment(paymentId, LocalDateTime.now(), reference, payment.getAmount()));
+            Mockito.verify(paymentRepository, Mockito.never()).transitionStatus(any(), any(), any(), any());
+            Mockito.verifyNoInteractions(summaryRepository);
+        }
+
+        @Test
+        void shouldReturnStoredPaymentSummary() {
+
+            CustomerPaymentSummary summary = new CustomerPaymentSummary(customerId, 3, new BigDecimal("150.00"), 1,
+                    new BigDecimal("50.00"), LocalDateTime.now());
+            Mockito.when(summaryRepository.findById(customerId)).thenReturn(Optional.of(summary));
+
+            assertEquals(summary, paymentService.getPaymentSummary(customerId));
+            Mockito.verifyNoInteractions(customerService, paymentRepository);
+        }
+
+        @Test
+        void shouldReturnEmptySummaryForCustomerWithoutPayments() {
+
+            Mockito.when(summaryRepository.findById(customerId)).thenReturn(Optional.empty());
+            Mockito.when(customerService.getCustomerById(customerId)).thenReturn(customer);
+
+            CustomerPaymentSummary summary = paymentService.getPaymentSummary(customerId);
+
+            assertEquals(0, summary.getPaymentCount());
+            assertEquals(BigDecimal.ZERO, summary.getTotalAmount());
+            assertNull(summary.getLastPaymentAt());
+        }
+
+        @Test
+        void shouldThrowCustomerNotFoundExceptionWhenSummarizingUnknownCustomer() {
+
+            Mockito.when(summaryRepository.findById(customerId)).thenReturn(Optional.empty());
+            Mockito.when(customerService.getCustomerById(customerId)).thenThrow(new CustomerNotFoundException("not found"));
+
+            assertThrows(CustomerNotFoundException.class, () -> paymentService.getPaymentSummary(customerId));
         }
     }
 
@@ -0,0 +1,158 @@
+package com.petmuc.payment.domain.services.impl;
+
+import com.petmuc.payment.api.dtos.PaymentView;
+import com.petmuc.payment.config.PaymentProperties;
+import com.petmuc.payment.domain.models.PaymentReversal;
+import com.petmuc.payment.domain.models.PaymentStatus;
+import com.petmuc.payment.domain.models.ReversalStatus;
+import com.petmuc.payment.domain.repositories.PaymentReversalRepository;
+import com.petmuc.payment.domain.services.PaymentService;
+import com.petmuc.payment.exception.GatewayUnavailableException;
+import com.petmuc.payment.exception.ReversalProcessingException;
+import com.petmuc.payment.exception.ValidationException;
+import com.petmuc.payment.utils.MessageUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+
+@ExtendWith(MockitoExtension.class)
+class ReversalServiceImplTest {
+
+    private static final Long PAYMENT_ID = 2L;
+    private static final LocalDateTime PAYMENT_DATE = LocalDateTime.of(2024, 5, 31, 23, 59);
+    private static final String REFERENCE = "f8c3de3d-1fea-4d7c-a8b0-29f63c4c3454";
+
+    @Mock
+    private MessageUtil messageUtil;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentReversalRepository paymentReversalRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final PaymentProperties paymentProperties = new PaymentProperties();
+
+    private ReversalServiceImpl reversalService;
+
+    @BeforeEach
+    void setUp() {
+        paymentProperties.getReversal().setBatchSize(10);
+        paymentProperties.getReversal().setMaxAttempts(3);
+        reversalService = new ReversalServiceImpl(messageUtil, paymentService, paymentReversalRepository, transactionManager,
+                paymentProperties, Runnable::run, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldEnqueueReversalOfSucceededPayment() {
+        PaymentView payment = new PaymentView(PAYMENT_ID, "VISA", new BigDecimal("50.00"), null, PAYMENT_DATE, REFERENCE, PaymentStatus.SUCCEEDED);
+        PaymentReversal queued = reversal(0);
+        Mockito.when(paymentService.getPaymentById(PAYMENT_ID)).thenReturn(payment);
+        Mockito.when(paymentReversalRepository.findByPaymentId(PAYMENT_ID)).thenReturn(Optional.of(queued));
+
+        assertSame(queued, reversalService.requestReversal(PAYMENT_ID));
+        Mockito.verify(paymentReversalRepository).enqueue(PAYMENT_ID, PAYMENT_DATE, REFERENCE, new BigDecimal("50.00"));
+        Mockito.verifyNoMoreInteractions(paymentService);
+    }
+
+    @Test
+    void shouldRejectReversalOfPaymentThatDidNotSucceed() {
+        PaymentView payment = new PaymentView(PAYMENT_ID, "VISA", new BigDecimal("50.00"), null, null, REFERENCE, PaymentStatus.FAILED);
+        Mockito.when(paymentService.getPaymentById(PAYMENT_ID)).thenReturn(payment);
+
+        assertThrows(ValidationException.class, () -> reversalService.requestReversal(PAYMENT_ID));
+        Mockito.verify(paymentReversalRepository, Mockito.never()).enqueue(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldCompleteReversalAcceptedByGateway() {
+        Mockito.when(paymentReversalRepository.claimDue(10, 120)).thenReturn(List.of(reversal(1)));
+
+        assertEquals(1, reversalService.processDueReversals(5));
+
+        Mockito.verify(paymentService).reversePayment(PAYMENT_ID, PAYMENT_DATE, REFERENCE, new BigDecimal("50.00"));
+        Mockito.verify(paymentReversalRepository).recordOutcome(eq(7L), eq(ReversalStatus.SUCCEEDED), isNull(), isNull(), any());
+    }
+
+    @Test
+    void shouldScheduleRetryWithBackoffWhenReversalFails() {
+        Mockito.when(paymentReversalRepository.claimDue(10, 120)).thenReturn(List.of(reversal(1)));
+        Mockito.doThrow(new IllegalStateException("gateway timeout"))
+                .when(paymentService).reversePayment(anyLong(), any(), any(), any());
+
+        reversalService.processDueReversals(5);
+
+        Mockito.verify(paymentReversalRepository).recordOutcome(eq(7L), eq(ReversalStatus.PENDING),
+                Mockito.argThat(next -> next.isAfter(LocalDateTime.now())), eq("gateway timeout"), any());
+    }
+
+    @Test
+    void shouldDeadLetterReversalAfterMaxAttempts() {
+        Mockito.when(paymentReversalRepository.claimDue(10, 120)).thenReturn(List.of(reversal(3)));
+        Mockito.doThrow(new IllegalStateException("gateway timeout"))
+                .when(paymentService).reversePayment(anyLong(), any(), any(), any());
+
+        reversalService.processDueReversals(5);
+
+        Mockito.verify(paymentReversalRepository).recordOutcome(eq(7L), eq(ReversalStatus.DEAD), isNull(), eq("gateway timeout"), any());
+    }
+
+    @Test
+    void shouldDeadLetterReversalDeclinedByGatewayOnItsFirstAttempt() {
+        Mockito.when(paymentReversalRepository.claimDue(10, 120)).thenReturn(List.of(reversal(1)));
+        Mockito.doThrow(new ReversalProcessingException("declined"))
+                .when(paymentService).reversePayment(anyLong(), any(), any(), any());
+
+        reversalService.processDueReversals(5);
+
+        Mockito.verify(paymentReversalRepository).recordOutcome(eq(7L), eq(ReversalStatus.DEAD), isNull(), eq("declined"), any());
+    }
+
+    @Test
+    void shouldGiveTheAttemptBackAndPauseWhenGatewayIsUnavailable() {
+        paymentProperties.getReversal().setBatchSize(1);
+        Mockito.when(paymentReversalRepository.claimDue(1, 120)).thenReturn(List.of(reversal(3)));
+        Mockito.doThrow(new GatewayUnavailableException("circuit open"))
+                .when(paymentService).reversePayment(anyLong(), any(), any(), any());
+
+        assertEquals(1, reversalService.processDueReversals(5));
+
+        Mockito.verify(paymentReversalRepository).reschedule(eq(7L),
+                Mockito.argThat(next -> next.isAfter(LocalDateTime.now())), eq("circuit open"), any());
+        Mockito.verify(paymentReversalRepository, Mockito.never()).recordOutcome(any(), any(), any(), any(), any());
+        Mockito.verify(paymentReversalRepository, Mockito.times(1)).claimDue(1, 120);
+    }
+
+    private static PaymentReversal reversal(int attempts) {
+        PaymentReversal reversal = new PaymentReversal();
+        reversal.setId(7L);
+        reversal.setPaymentId(PAYMENT_ID);
+        reversal.setPaymentDate(PAYMENT_DATE);
+        reversal.setReference(REFERENCE);
+        reversal.setAmount(new BigDecimal("50.00"));
+        reversal.setStatus(ReversalStatus.PENDING);
+        reversal.setAttempts(attempts);
+        return reversal;
+    }
+}
@@ -0,0 +1,29 @@
+package com.petmuc.payment.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
+
+    @Test
+    void shouldReportUnknownPaymentAsNotFound() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/payments/42");
+
+        ResponseEntity<ProblemDetail> response = exceptionHandler.handlePaymentNotFound(
+                new PaymentNotFoundException("Payment not found with id: 42"), request);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Payment Not Found", response.getBody().getTitle());
+        assertEquals("Payment not found with id: 42", response.getBody().getDetail());
+        assertEquals(URI.create("/api/v1/customers/payments/42"), response.getBody().getInstance());
+    }
+}
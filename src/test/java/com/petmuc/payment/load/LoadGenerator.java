@@ -0,0 +1,106 @@
+package com.petmuc.payment.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/**
+ * Open-model load generator: requests are started at a fixed arrival rate whether or not earlier ones have
+ * completed, the way independent clients arrive in production. Latency is measured from the moment a request was
+ * scheduled to start rather than from when it was actually sent, so a stalled generator or a saturated service
+ * shows up in the percentiles instead of silently lowering the offered load.
+ */
+final class LoadGenerator {
+
+    private final HttpClient httpClient;
+
+    LoadGenerator(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Sends {@code ratePerSecond * duration} requests, the i-th built by {@code requests} and scheduled
+     * {@code i / ratePerSecond} seconds after the start, and waits for all of them to complete.
+     */
+    Report run(double ratePerSecond, Duration duration, IntFunction<HttpRequest> requests) {
+        int count = (int) (ratePerSecond * duration.toNanos() / TimeUnit.SECONDS.toNanos(1));
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long[] latencies = new long[count];
+        // index 0 counts transport failures, 1..5 the 1xx..5xx status classes
+        AtomicIntegerArray outcomes = new AtomicIntegerArray(6);
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[count];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int index = i;
+            inFlight[i] = httpClient.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies[index] = System.nanoTime() - intendedStart;
+                        outcomes.incrementAndGet(failure == null ? response.statusCode() / 100 : 0);
+                    });
+        }
+        CompletableFuture.allOf(inFlight).handle((ignored, failure) -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        int[] statusClasses = new int[outcomes.length()];
+        for (int i = 0; i < statusClasses.length; i++) {
+            statusClasses[i] = outcomes.get(i);
+        }
+        Arrays.sort(latencies);
+        return new Report(ratePerSecond, count, Duration.ofNanos(elapsed), statusClasses, latencies);
+    }
+
+    /**
+     * Outcome of one run; latencies are sorted, in nanoseconds.
+     */
+    record Report(double offeredRate, int requests, Duration elapsed, int[] statusClasses, long[] latencies) {
+
+        double throughput() {
+            return requests / (elapsed.toNanos() / 1e9);
+        }
+
+        int transportFailures() {
+            return statusClasses[0];
+        }
+
+        int withStatusClass(int statusClass) {
+            return statusClasses[statusClass];
+        }
+
+        Duration percentile(double percentile) {
+            if (latencies.length == 0) {
+                return Duration.ZERO;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+            return Duration.ofNanos(latencies[Math.max(0, rank - 1)]);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "offered %.1f req/s, completed %d in %.1f s (%.1f req/s); 2xx=%d 3xx=%d 4xx=%d 5xx=%d failed=%d; "
+                            + "latency ms p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f",
+                    offeredRate, requests, elapsed.toNanos() / 1e9, throughput(),
+                    statusClasses[2], statusClasses[3], statusClasses[4], statusClasses[5], statusClasses[0],
+                    millis(percentile(50)), millis(percentile(90)), millis(percentile(99)), millis(percentile(99.9)),
+                    millis(percentile(100)));
+        }
+
+        private static double millis(Duration duration) {
+            return duration.toNanos() / 1e6;
+        }
+    }
+}
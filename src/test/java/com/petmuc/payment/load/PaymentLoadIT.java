@@ -0,0 +1,160 @@
+package com.petmuc.payment.load;
+
+import com.petmuc.payment.adapter.simulator.GatewaySimulator;
+import com.petmuc.payment.config.NoSecurityConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the customer endpoints at a fixed arrival rate against Postgres and the embedded gateway simulator, and logs
+ * throughput and latency percentiles. Run with {@code mvn -Pload-test test-compile failsafe:integration-test failsafe:verify}; set
+ * the offered load with {@code -Dload.rate=<requests per second>} and {@code -Dload.seconds=<duration>}. The
+ * simulator's seed is fixed, so runs at the same rate see the same gateway latencies and outcomes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.sql.init.mode=always",
+        "payment.gateway.simulator.median-latency=50ms",
+        "payment.gateway.simulator.p99-latency=250ms",
+        "payment.gateway.simulator.decline-rate=0.02",
+        "payment.gateway.simulator.error-rate=0.01"
+})
+@ActiveProfiles(GatewaySimulator.PROFILE)
+@Import(NoSecurityConfig.class)
+class PaymentLoadIT {
+    private static final Logger log = LoggerFactory.getLogger(PaymentLoadIT.class);
+
+    private static final int RATE = Integer.getInteger("load.rate", 50);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.seconds", 10));
+    private static final Duration WARM_UP = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+    private static final int CUSTOMERS = 100;
+    private static final String PAYMENT = "{\"method\":\"CARD\",\"amount\":10.00}";
+    // picked once: the gateway client URL and the simulator both resolve this property
+    private static final int SIMULATOR_PORT = freePort();
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @LocalServerPort
+    private Integer port;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final LoadGenerator loadGenerator = new LoadGenerator(httpClient);
+    private final List<Long> customerIds = new ArrayList<>();
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("payment.gateway.simulator.port", () -> SIMULATOR_PORT);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < CUSTOMERS; i++) {
+            HttpResponse<String> response = httpClient.send(post("/api/v1/customers",
+                    "{\"name\":\"Load Customer " + i + "\",\"email\":\"load-" + System.nanoTime() + "@example.com\"}"),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(201);
+            Matcher id = ID.matcher(response.body());
+            assertThat(id.find()).isTrue();
+            customerIds.add(Long.parseLong(id.group(1)));
+        }
+    }
+
+    @Test
+    void synchronousPayments() {
+        LoadGenerator.Report report = measure(this::payment);
+
+        assertThat(report.transportFailures()).isZero();
+        assertThat(report.withStatusClass(2)).isGreaterThanOrEqualTo(report.requests() * 9 / 10);
+    }
+
+    /**
+     * Every other request submits a payment with Prefer: respond-async, the rest read a customer's payments.
+     */
+    @Test
+    void asynchronousPaymentsWithReads() {
+        LoadGenerator.Report report = measure(i -> i % 2 == 0
+                ? post("/api/v1/customers/" + customer(i) + "/payments", PAYMENT, "Prefer", "respond-async")
+                : get("/api/v1/customers/" + customer(i) + "/payments?limit=20"));
+
+        assertThat(report.transportFailures()).isZero();
+        assertThat(report.withStatusClass(5)).isZero();
+    }
+
+    private LoadGenerator.Report measure(IntFunction<HttpRequest> requests) {
+        log.info("Warm-up: {}", loadGenerator.run(RATE, WARM_UP, requests));
+        LoadGenerator.Report report = loadGenerator.run(RATE, DURATION, requests);
+        log.info("Measured: {}", report);
+        return report;
+    }
+
+    private HttpRequest payment(int i) {
+        return post("/api/v1/customers/" + customer(i) + "/payments", PAYMENT);
+    }
+
+    private long customer(int i) {
+        return customerIds.get(i % customerIds.size());
+    }
+
+    private HttpRequest post(String path, String json, String... headers) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        return headers.length > 0 ? request.headers(headers).build() : request.build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
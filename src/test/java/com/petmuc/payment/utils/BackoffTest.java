@@ -0,0 +1,22 @@
+package com.petmuc.payment.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackoffTest {
+
+    @Test
+    void shouldKeepBackoffWithinExponentialBounds() {
+        Duration initial = Duration.ofSeconds(5);
+        Duration max = Duration.ofMinutes(30);
+
+        for (int attempt = 1; attempt <= 12; attempt++) {
+            long ceiling = Math.min(max.toMillis(), initial.toMillis() << (attempt - 1));
+            long delay = Backoff.exponentialWithJitter(attempt, initial, max).toMillis();
+            assertTrue(delay >= ceiling / 2 && delay <= ceiling, "attempt " + attempt + " delay " + delay);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.petmuc.payment.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MessageTemplateTest {
+
+    @Test
+    void shouldFormatLikeStringFormat() {
+        String pattern = "Payment %s could not be processed: %s";
+
+        String message = MessageTemplate.compile(pattern).format("ref-1", "Insufficient funds");
+
+        assertEquals(String.format(pattern, "ref-1", "Insufficient funds"), message);
+    }
+
+    @Test
+    void shouldFormatNumbersAndEscapedPercent() {
+        assertEquals("Customer not found with id: 42", MessageTemplate.compile("Customer not found with id: %d").format(42L));
+        assertEquals("100% sure", MessageTemplate.compile("100%% sure").format());
+        assertEquals("An unexpected error occurred", MessageTemplate.compile("An unexpected error occurred").format());
+    }
+
+    @Test
+    void shouldFallBackToStringFormatForOtherConversions() {
+        assertEquals("Code: ff", MessageTemplate.compile("Code: %x").format(255));
+    }
+}
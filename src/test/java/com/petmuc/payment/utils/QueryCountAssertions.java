@@ -0,0 +1,28 @@
+package com.petmuc.payment.utils;
+
+import com.petmuc.payment.config.SqlStatementCounter;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Guards against N+1 selects and other query-count regressions: runs an action and fails if it issued more SQL
+ * statements through JPA than expected, listing the statements it did issue.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static <T> T assertMaxStatements(int expected, Supplier<T> action) {
+        try (SqlStatementCounter.Recording recording = SqlStatementCounter.startCapturing()) {
+            T result = action.get();
+            if (recording.count() > expected) {
+                fail("Expected at most " + expected + " SQL statements but " + recording.count() + " were issued:\n  "
+                        + String.join("\n  ", recording.statements()));
+            }
+            return result;
+        }
+    }
+}